@@ -0,0 +1,131 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how each meeting query engine scales with the size of the calendar and the request.
+ * Every run builds a synthetic calendar from a fixed seed, so numbers are comparable between runs
+ * and between engines. Throughput and sampled latency are reported for each combination, and
+ * running with {@code -prof gc} (the default in the pom) adds the bytes allocated per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeetingQueryBenchmark {
+  /** The engine to measure. The index-based engines build their index before measuring starts. */
+  @Param({"FindMeetingQuery", "SweepMeetingQuery", "EventIndex", "BitmapMeetingQuery"})
+  public String engine;
+
+  /** The number of events on the whole calendar. */
+  @Param({"10", "1000", "100000", "1000000"})
+  public int eventCount;
+
+  /** The number of people in the request, required and optional together. */
+  @Param({"1", "10", "1000", "10000"})
+  public int attendeeCount;
+
+  /** The share of the people in the request who are optional. */
+  @Param({"0.0", "0.5"})
+  public double optionalRatio;
+
+  /** The length of the requested meeting in minutes. */
+  @Param({"30", "120"})
+  public int duration;
+
+  private Collection<Event> events;
+  private MeetingRequest request;
+  private MeetingQuery meetingQuery;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(2020);
+    // Leave plenty of people out of the request so that filtering by attendee has work to do.
+    int companySize = Math.max(2 * attendeeCount, 100);
+
+    List<Event> generated = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      int length = 15 * (1 + random.nextInt(8));
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - length);
+      List<String> attendees = new ArrayList<>();
+      for (int j = 1 + random.nextInt(4); j > 0; j--) {
+        attendees.add(person(random.nextInt(companySize)));
+      }
+      generated.add(new Event("Event " + i, TimeRange.fromStartDuration(start, length), attendees));
+    }
+    events = generated;
+
+    int optionalCount = (int) (attendeeCount * optionalRatio);
+    List<String> required = new ArrayList<>();
+    for (int i = optionalCount; i < attendeeCount; i++) {
+      required.add(person(i));
+    }
+    request = new MeetingRequest(required, duration);
+    for (int i = 0; i < optionalCount; i++) {
+      request.addOptionalAttendee(person(i));
+    }
+
+    meetingQuery = createEngine(engine, events);
+  }
+
+  private static MeetingQuery createEngine(String engine, Collection<Event> events) {
+    switch (engine) {
+      case "FindMeetingQuery":
+        return new FindMeetingQuery();
+      case "SweepMeetingQuery":
+        return new SweepMeetingQuery();
+      case "EventIndex": {
+        EventIndex index = new EventIndex(events);
+        SweepMeetingQuery sweepMeetingQuery = new SweepMeetingQuery();
+        return (ignored, request) -> sweepMeetingQuery.query(index, request);
+      }
+      case "BitmapMeetingQuery": {
+        EventIndex index = new EventIndex(events);
+        BitmapMeetingQuery bitmapMeetingQuery = new BitmapMeetingQuery();
+        return (ignored, request) -> bitmapMeetingQuery.query(index, request);
+      }
+      default:
+        throw new IllegalArgumentException("Unknown engine: " + engine);
+    }
+  }
+
+  private static String person(int id) {
+    return "Person " + id;
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return meetingQuery.query(events, request);
+  }
+}
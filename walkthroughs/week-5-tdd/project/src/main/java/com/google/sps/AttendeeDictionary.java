@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every attendee name a small, dense {@code int} ID, so that sets of attendees can be kept
+ * as sorted {@code int} arrays instead of sets of strings. IDs are handed out in the order that
+ * names are first seen and never change or get reused.
+ *
+ * <p>Looking up names and IDs never blocks. Adding a new name takes a lock.
+ */
+public final class AttendeeDictionary {
+  private static final AttendeeDictionary DEFAULT = new AttendeeDictionary();
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  // Entries past the number of IDs handed out are null. Written before the ID is published in
+  // {@code ids}, so anyone who holds an ID can read its name.
+  private volatile String[] names = new String[64];
+
+  /**
+   * Returns the dictionary that {@link AttendeeSet} uses.
+   */
+  public static AttendeeDictionary getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the ID of {@code name}, giving it the next free ID if it doesn't have one yet.
+   */
+  public int encode(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+
+    synchronized (this) {
+      id = ids.get(name);
+      if (id == null) {
+        id = ids.size();
+        String[] current = names;
+        if (id == current.length) {
+          current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = name;
+        names = current;
+        ids.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Returns the ID of {@code name}, or -1 if it has never been encoded.
+   */
+  public int lookup(String name) {
+    Integer id = name == null ? null : ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the name with the ID {@code id}.
+   */
+  public String decode(int id) {
+    String[] current = names;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("Unknown attendee ID: " + id);
+    }
+    return current[id];
+  }
+
+  /**
+   * Returns the number of names that have an ID.
+   */
+  public int size() {
+    return ids.size();
+  }
+}
@@ -0,0 +1,294 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only set of attendee names, stored as the sorted {@link AttendeeDictionary} IDs of those
+ * names. An {@code int} per attendee is a fraction of what a {@code HashSet} entry costs, and
+ * checking whether two sets share anyone is a merge of two sorted arrays rather than a string
+ * hash per attendee.
+ *
+ * <p>Only events give names an ID, through {@link #of}. Requests use {@link #resolve}, which keeps
+ * names the dictionary doesn't know to one side instead, so that unknown names in requests can't
+ * grow the dictionary. Such a name isn't on any event, so it never makes anyone busy.
+ */
+public final class AttendeeSet extends AbstractSet<String> {
+  public static final AttendeeSet EMPTY = new AttendeeSet(new int[0], new String[0]);
+
+  private static final AttendeeDictionary DICTIONARY = AttendeeDictionary.getDefault();
+
+  // Sorted and without duplicates.
+  private final int[] ids;
+  // Names that had no ID when the set was built, sorted and without duplicates.
+  private final String[] unknown;
+
+  private AttendeeSet(int[] ids, String[] unknown) {
+    this.ids = ids;
+    this.unknown = unknown;
+  }
+
+  /**
+   * Returns a set of the distinct names in {@code names}, giving any new name an ID. Use this for
+   * the attendees of events. If {@code names} already is an {@code AttendeeSet} where every name
+   * has an ID it is returned as is.
+   */
+  public static AttendeeSet of(Collection<String> names) {
+    if (names instanceof AttendeeSet && ((AttendeeSet) names).unknown.length == 0) {
+      return (AttendeeSet) names;
+    }
+    if (names.isEmpty()) {
+      return EMPTY;
+    }
+
+    int[] ids = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      ids[count++] = DICTIONARY.encode(name);
+    }
+    return new AttendeeSet(distinct(ids, count), EMPTY.unknown);
+  }
+
+  /**
+   * Returns a set of the distinct names in {@code names} without giving any name an ID. Use this
+   * for the attendees of requests. If {@code names} already is an {@code AttendeeSet} it is
+   * returned as is.
+   */
+  public static AttendeeSet resolve(Collection<String> names) {
+    if (names instanceof AttendeeSet) {
+      return (AttendeeSet) names;
+    }
+    if (names.isEmpty()) {
+      return EMPTY;
+    }
+
+    int[] ids = new int[names.size()];
+    int count = 0;
+    List<String> unknown = new ArrayList<>(0);
+    for (String name : names) {
+      int id = DICTIONARY.lookup(checkNotNull(name));
+      if (id >= 0) {
+        ids[count++] = id;
+      } else {
+        unknown.add(name);
+      }
+    }
+    return new AttendeeSet(distinct(ids, count), distinct(unknown));
+  }
+
+  /**
+   * Returns a set with everyone in this set plus {@code name}. Like {@link #resolve}, this doesn't
+   * give {@code name} an ID.
+   */
+  public AttendeeSet with(String name) {
+    if (contains(checkNotNull(name))) {
+      return this;
+    }
+
+    int id = DICTIONARY.lookup(name);
+    if (id < 0) {
+      String[] added = Arrays.copyOf(unknown, unknown.length + 1);
+      added[unknown.length] = name;
+      Arrays.sort(added);
+      return new AttendeeSet(ids, added);
+    }
+
+    int insertAt = -Arrays.binarySearch(ids, id) - 1;
+    int[] added = new int[ids.length + 1];
+    System.arraycopy(ids, 0, added, 0, insertAt);
+    added[insertAt] = id;
+    System.arraycopy(ids, insertAt, added, insertAt + 1, ids.length - insertAt);
+    return new AttendeeSet(added, unknown);
+  }
+
+  /**
+   * Returns true if at least one attendee is in both this set and {@code other}.
+   */
+  public boolean intersects(AttendeeSet other) {
+    // A name that was unknown when one set was built may have been given an ID since.
+    for (String name : unknown) {
+      if (other.contains(name)) {
+        return true;
+      }
+    }
+    for (String name : other.unknown) {
+      if (contains(name)) {
+        return true;
+      }
+    }
+
+    int[] a = ids;
+    int[] b = other.ids;
+    if (a.length == 0 || b.length == 0 || a[0] > b[b.length - 1] || b[0] > a[a.length - 1]) {
+      return false;
+    }
+
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        return true;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the dictionary ID of the attendee at {@code index}, in ID order.
+   */
+  int id(int index) {
+    return ids[index];
+  }
+
+  @Override
+  public int size() {
+    return ids.length + unknown.length;
+  }
+
+  @Override
+  public boolean contains(Object name) {
+    if (!(name instanceof String)) {
+      return false;
+    }
+    if (unknown.length > 0 && Arrays.binarySearch(unknown, name) >= 0) {
+      return true;
+    }
+    int id = DICTIONARY.lookup((String) name);
+    return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+  }
+
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size();
+      }
+
+      @Override
+      public String next() {
+        if (next == size()) {
+          throw new NoSuchElementException();
+        }
+        int index = next++;
+        return index < ids.length ? DICTIONARY.decode(ids[index]) : unknown[index - ids.length];
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (other instanceof AttendeeSet && unknown.length == 0
+        && ((AttendeeSet) other).unknown.length == 0) {
+      return Arrays.equals(ids, ((AttendeeSet) other).ids);
+    }
+    return super.equals(other);
+  }
+
+  @Override
+  public int hashCode() {
+    // Must match the hash code of any other set with the same names.
+    return super.hashCode();
+  }
+
+  private static int[] distinct(int[] ids, int count) {
+    if (count == 0) {
+      return EMPTY.ids;
+    }
+    Arrays.sort(ids, 0, count);
+    int distinct = 1;
+    for (int i = 1; i < count; i++) {
+      if (ids[i] != ids[distinct - 1]) {
+        ids[distinct++] = ids[i];
+      }
+    }
+    return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+  }
+
+  private static String[] distinct(List<String> names) {
+    if (names.isEmpty()) {
+      return EMPTY.unknown;
+    }
+    String[] sorted = names.toArray(new String[0]);
+    Arrays.sort(sorted);
+    int distinct = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (!sorted[i].equals(sorted[distinct - 1])) {
+        sorted[distinct++] = sorted[i];
+      }
+    }
+    return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+  }
+
+  private static String checkNotNull(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    return name;
+  }
+
+  /**
+   * Reads and writes an {@code AttendeeSet} as a JSON array of names. Use it on fields with
+   * {@code @JsonAdapter}. Names are read with {@link #resolve}, so reading a request never gives
+   * a name an ID; events give theirs one when they are constructed.
+   */
+  public static final class GsonAdapter extends TypeAdapter<AttendeeSet> {
+    @Override
+    public void write(JsonWriter out, AttendeeSet attendees) throws IOException {
+      if (attendees == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginArray();
+      for (String name : attendees) {
+        out.value(name);
+      }
+      out.endArray();
+    }
+
+    @Override
+    public AttendeeSet read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return EMPTY;
+      }
+      Collection<String> names = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        names.add(in.nextString());
+      }
+      in.endArray();
+      return resolve(names);
+    }
+  }
+}
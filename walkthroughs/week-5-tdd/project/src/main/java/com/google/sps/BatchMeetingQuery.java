@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Answers many meeting requests at once against the same {@link BusySchedule}. The requests are
+ * split across a {@link ForkJoinPool} and all read the schedule without locking, so it must not
+ * change while a batch is running.
+ */
+public final class BatchMeetingQuery {
+  // Below this many requests a task answers them itself rather than splitting again.
+  private static final int REQUESTS_PER_TASK = 8;
+
+  private final ForkJoinPool pool;
+  private final SweepMeetingQuery sweepMeetingQuery = new SweepMeetingQuery();
+
+  /**
+   * Creates a new batch query.
+   *
+   * @param pool The pool to answer requests on. Must be non-null.
+   */
+  public BatchMeetingQuery(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+
+    this.pool = pool;
+  }
+
+  /**
+   * Returns the open time ranges for each request, in the same order as {@code requests}.
+   *
+   * @param schedule The busy times of every attendee. Must be non-null.
+   * @param requests The requests to answer. Must be non-null and must not contain null.
+   */
+  public List<Collection<TimeRange>> query(BusySchedule schedule, List<MeetingRequest> requests) {
+    @SuppressWarnings("unchecked")
+    Collection<TimeRange>[] answers = new Collection[requests.size()];
+    MeetingRequest[] requestArray = requests.toArray(new MeetingRequest[0]);
+    pool.invoke(new QueryTask(schedule, requestArray, answers, 0, requestArray.length));
+    return Arrays.asList(answers);
+  }
+
+  /** Answers the requests in {@code [from, to)}, writing each answer at the request's index. */
+  private final class QueryTask extends RecursiveAction {
+    private final BusySchedule schedule;
+    private final MeetingRequest[] requests;
+    private final Collection<TimeRange>[] answers;
+    private final int from;
+    private final int to;
+
+    QueryTask(BusySchedule schedule, MeetingRequest[] requests, Collection<TimeRange>[] answers,
+        int from, int to) {
+      this.schedule = schedule;
+      this.requests = requests;
+      this.answers = answers;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= REQUESTS_PER_TASK) {
+        for (int i = from; i < to; i++) {
+          answers[i] = sweepMeetingQuery.query(schedule, requests[i]);
+        }
+        return;
+      }
+
+      int middle = (from + to) >>> 1;
+      invokeAll(new QueryTask(schedule, requests, answers, from, middle),
+          new QueryTask(schedule, requests, answers, middle, to));
+    }
+  }
+}
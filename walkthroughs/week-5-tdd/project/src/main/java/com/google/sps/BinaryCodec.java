@@ -0,0 +1,170 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of meeting requests and their answers, for clients that would rather
+ * not pay for JSON. Everything is big-endian, as written by {@link DataOutput}, and starts with a
+ * version byte so that the format can change later.
+ *
+ * <p>A request is its duration as a {@code long}; its priority and quorum as {@code int}s; its
+ * required and optional attendees, each as a count followed by that many modified UTF-8 names;
+ * and its availability as a count of attendees, each a name, a count of windows and each
+ * window's start and duration. An answer is a count of ranges followed by each range's start and
+ * duration.
+ */
+public final class BinaryCodec {
+  /** The media type that requests and answers in this encoding are sent as. */
+  public static final String CONTENT_TYPE = "application/x-meeting-binary";
+
+  private static final byte VERSION = 1;
+
+  // No list is presized beyond this, so that a corrupt count can't allocate a huge array before
+  // the input runs out.
+  private static final int MAX_PRESIZE = 1024;
+
+  private BinaryCodec() {
+    // Disallow instances.
+  }
+
+  /**
+   * Writes {@code request} to {@code out}.
+   */
+  public static void writeRequest(MeetingRequest request, DataOutput out) throws IOException {
+    out.writeByte(VERSION);
+    out.writeLong(request.getDuration());
+    out.writeInt(request.getPriority());
+    out.writeInt(request.getQuorum());
+    writeNames(request.getAttendees(), out);
+    writeNames(request.getOptionalAttendees(), out);
+    Map<String, List<TimeRange>> availability = request.getAvailability();
+    out.writeInt(availability.size());
+    for (Map.Entry<String, List<TimeRange>> entry : availability.entrySet()) {
+      out.writeUTF(entry.getKey());
+      writeTimeRanges(entry.getValue(), out);
+    }
+  }
+
+  /**
+   * Reads a request written by {@link #writeRequest}.
+   *
+   * @throws IOException if the input ends early or isn't a request in this encoding.
+   */
+  public static MeetingRequest readRequest(DataInput in) throws IOException {
+    readVersion(in);
+    long duration = in.readLong();
+    int priority = in.readInt();
+    int quorum = in.readInt();
+    List<String> attendees = readNames(in);
+    List<String> optionalAttendees = readNames(in);
+
+    MeetingRequest request = new MeetingRequest(attendees, duration);
+    request.setOptionalAttendees(optionalAttendees);
+    request.setPriority(priority);
+    try {
+      request.setQuorum(quorum);
+      for (int i = readCount(in); i > 0; i--) {
+        request.setAvailability(in.readUTF(), readTimeRangeList(in));
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Malformed request: " + e.getMessage(), e);
+    }
+    return request;
+  }
+
+  /**
+   * Writes an answer to {@code out}.
+   */
+  public static void writeAnswer(Collection<TimeRange> answer, DataOutput out) throws IOException {
+    out.writeByte(VERSION);
+    writeTimeRanges(answer, out);
+  }
+
+  /**
+   * Reads an answer written by {@link #writeAnswer}.
+   *
+   * @throws IOException if the input ends early or isn't an answer in this encoding.
+   */
+  public static List<TimeRange> readAnswer(DataInput in) throws IOException {
+    readVersion(in);
+    try {
+      return readTimeRangeList(in);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Malformed answer: " + e.getMessage(), e);
+    }
+  }
+
+  private static void writeNames(Collection<String> names, DataOutput out) throws IOException {
+    out.writeInt(names.size());
+    for (String name : names) {
+      out.writeUTF(name);
+    }
+  }
+
+  private static List<String> readNames(DataInput in) throws IOException {
+    int count = readCount(in);
+    List<String> names = new ArrayList<>(Math.min(count, MAX_PRESIZE));
+    for (int i = 0; i < count; i++) {
+      names.add(in.readUTF());
+    }
+    return names;
+  }
+
+  private static void writeTimeRanges(Collection<TimeRange> ranges, DataOutput out)
+      throws IOException {
+    out.writeInt(ranges.size());
+    for (TimeRange range : ranges) {
+      out.writeInt(range.start());
+      out.writeInt(range.duration());
+    }
+  }
+
+  private static List<TimeRange> readTimeRangeList(DataInput in) throws IOException {
+    int count = readCount(in);
+    List<TimeRange> ranges = new ArrayList<>(Math.min(count, MAX_PRESIZE));
+    for (int i = 0; i < count; i++) {
+      int start = in.readInt();
+      int duration = in.readInt();
+      if (duration < 0) {
+        throw new IOException("Malformed time range: duration cannot be negative");
+      }
+      ranges.add(TimeRange.fromStartDuration(start, duration));
+    }
+    return ranges;
+  }
+
+  private static void readVersion(DataInput in) throws IOException {
+    byte version = in.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported version " + version);
+    }
+  }
+
+  private static int readCount(DataInput in) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IOException("Malformed count " + count);
+    }
+    return count;
+  }
+}
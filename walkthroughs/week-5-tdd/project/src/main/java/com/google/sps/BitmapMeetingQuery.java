@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MeetingQuery} that ORs together one {@link MinuteBitmap} per attendee and then finds the
+ * free runs with bit scans. The work per attendee is a fixed 23 word ORs no matter how many events
+ * they have, which makes it the fastest engine for requests with many attendees. It returns exactly
+ * what {@link FindMeetingQuery} returns.
+ */
+public final class BitmapMeetingQuery implements MeetingQuery {
+  private final SweepMeetingQuery sweepMeetingQuery = new SweepMeetingQuery();
+
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    if (request.getDuration() <= 0 || request.hasPartialQuorum()) {
+      // A zero-length meeting fits in the instant between two touching events, which a bitmap of
+      // whole minutes can't see, and a quorum needs each attendee's busy times on their own.
+      return sweepMeetingQuery.query(events, request);
+    }
+
+    AttendeeSet attendees = request.getAttendees();
+    AttendeeSet optionalAttendees = request.getOptionalAttendees();
+    MinuteBitmap busy = new MinuteBitmap();
+    MinuteBitmap optionalBusy = new MinuteBitmap();
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (event.getAttendees().intersects(attendees)) {
+        busy.setBusy(when.start(), when.end());
+      }
+      if (event.getAttendees().intersects(optionalAttendees)) {
+        optionalBusy.setBusy(when.start(), when.end());
+      }
+    }
+    return query(busy, optionalBusy, request);
+  }
+
+  /**
+   * Returns the open time ranges for {@code request}, combining the per-attendee bitmaps that
+   * {@code index} keeps.
+   */
+  public Collection<TimeRange> query(EventIndex index, MeetingRequest request) {
+    if (request.getDuration() <= 0 || request.hasPartialQuorum()) {
+      return sweepMeetingQuery.query(index, request);
+    }
+
+    return query(index.getBusyMinutes(request.getAttendees()),
+        index.getBusyMinutes(request.getOptionalAttendees()), request);
+  }
+
+  private static Collection<TimeRange> query(
+      MinuteBitmap busy, MinuteBitmap optionalBusy, MeetingRequest request) {
+    if (request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+      return Collections.emptyList();
+    }
+
+    // Limited availability is one more bitmap per group, so it only ever takes a few more ORs.
+    addUnavailable(busy, request, request.getAttendees());
+    addUnavailable(optionalBusy, request, request.getOptionalAttendees());
+
+    if (!request.getAttendees().isEmpty()) {
+      return findOpenSlots(busy, optionalBusy, request.getDuration());
+    }
+
+    if (!request.getOptionalAttendees().isEmpty()) {
+      // With nobody required, the optional attendees are treated as if they were required.
+      return findOpenSlots(optionalBusy, new MinuteBitmap(), request.getDuration());
+    }
+
+    return Arrays.asList(TimeRange.WHOLE_DAY);
+  }
+
+  private static void addUnavailable(
+      MinuteBitmap busy, MeetingRequest request, Collection<String> attendees) {
+    MinuteBitmap unavailable = request.getUnavailableMinutes(attendees);
+    if (unavailable != null) {
+      busy.or(unavailable);
+    }
+  }
+
+  private static List<TimeRange> findOpenSlots(
+      MinuteBitmap busy, MinuteBitmap optionalBusy, long duration) {
+    if (busy.isEmpty()) {
+      return Arrays.asList(TimeRange.WHOLE_DAY);
+    }
+
+    TimeRangeArray slots = new TimeRangeArray();
+    TimeRangeArray optionalFreeSlots = new TimeRangeArray();
+    for (int start = busy.nextFree(0); start < MinuteBitmap.MINUTES;) {
+      int end = busy.nextBusy(start);
+      // Like FindMeetingQuery, the length of the last gap of the day is measured to END_OF_DAY.
+      int length = end == MinuteBitmap.MINUTES ? TimeRange.END_OF_DAY - start : end - start;
+      if (length >= duration) {
+        long slot = PackedTimeRange.fromStartEnd(start, end);
+        slots.add(slot);
+        if (!optionalBusy.isBusy(start, end)) {
+          optionalFreeSlots.add(slot);
+        }
+      }
+      start = busy.nextFree(end);
+    }
+    return optionalFreeSlots.isEmpty() ? slots.toList() : optionalFreeSlots.toList();
+  }
+}
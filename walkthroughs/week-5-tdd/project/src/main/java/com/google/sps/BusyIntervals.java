@@ -0,0 +1,363 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The times when a group of people is busy, merged and sorted by start time. Starts and ends are
+ * kept in parallel {@code int} arrays so that walking the intervals never boxes or allocates.
+ *
+ * <p>Intervals that overlap are merged into one. Intervals that only touch (one ends exactly when
+ * the next one starts) are kept apart, which matches how {@link FindMeetingQuery} walks its sorted
+ * events.
+ */
+public final class BusyIntervals {
+  public static final BusyIntervals EMPTY = new BusyIntervals(new int[0], new int[0], 0);
+
+  private static final QueryStats STATS = QueryStats.getDefault();
+
+  private final int[] starts;
+  private final int[] ends;
+  private final int size;
+
+  private BusyIntervals(int[] starts, int[] ends, int size) {
+    this.starts = starts;
+    this.ends = ends;
+    this.size = size;
+  }
+
+  /**
+   * Merges the events that at least one of {@code attendees} is going to. Events with no duration
+   * never make anyone busy and are skipped.
+   */
+  public static BusyIntervals of(Collection<Event> events, Collection<String> attendees) {
+    if (events.isEmpty() || attendees.isEmpty()) {
+      return EMPTY;
+    }
+
+    AttendeeSet wanted = AttendeeSet.resolve(attendees);
+    long[] keys = new long[events.size()];
+    int count = 0;
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (when.duration() > 0 && event.getAttendees().intersects(wanted)) {
+        keys[count++] = pack(when.start(), when.end());
+      }
+    }
+    STATS.count(QueryStats.Counter.EVENTS_SCANNED, events.size());
+    STATS.count(QueryStats.Counter.EVENTS_KEPT, count);
+    return fromPacked(keys, count);
+  }
+
+  /**
+   * Merges the events of each of {@code attendees} on their own, in one pass over {@code events}.
+   * The result has one entry per attendee, in the order {@code attendees} iterates in, which must
+   * be without duplicates. Events with no duration are skipped.
+   */
+  static List<BusyIntervals> ofEach(Collection<Event> events, Collection<String> attendees) {
+    Map<String, Integer> positions = new HashMap<>();
+    for (String attendee : attendees) {
+      positions.put(attendee, positions.size());
+    }
+    PerPerson busy = new PerPerson(positions.size());
+    for (Event event : events) {
+      TimeRange when = event.getWhen();
+      if (when.duration() <= 0) {
+        continue;
+      }
+      for (String attendee : event.getAttendees()) {
+        Integer position = positions.get(attendee);
+        if (position != null) {
+          busy.add(position, when.start(), when.end());
+        }
+      }
+    }
+    return busy.build();
+  }
+
+  /**
+   * Collects the intervals of several people at once, each into their own list, so that one pass
+   * over the events can find everyone's busy times.
+   */
+  static final class PerPerson {
+    private final long[][] keys;
+    private final int[] counts;
+
+    PerPerson(int people) {
+      keys = new long[people][];
+      counts = new int[people];
+    }
+
+    /** Adds {@code [start, end)} to the busy times of the {@code person}-th person. */
+    void add(int person, int start, int end) {
+      long[] personKeys = keys[person];
+      if (personKeys == null || counts[person] == personKeys.length) {
+        personKeys = personKeys == null
+            ? new long[4] : Arrays.copyOf(personKeys, 2 * personKeys.length);
+        keys[person] = personKeys;
+      }
+      personKeys[counts[person]++] = pack(start, end);
+    }
+
+    /** Returns the number of intervals added so far, counting everyone. */
+    int count() {
+      int count = 0;
+      for (int personCount : counts) {
+        count += personCount;
+      }
+      return count;
+    }
+
+    /** Merges each person's intervals, in the order of their positions. */
+    List<BusyIntervals> build() {
+      List<BusyIntervals> busyByPerson = new ArrayList<>(keys.length);
+      for (int i = 0; i < keys.length; i++) {
+        busyByPerson.add(keys[i] == null ? EMPTY : fromPacked(keys[i], counts[i]));
+      }
+      return busyByPerson;
+    }
+  }
+
+  /**
+   * Returns the times within the days that {@code window} touches when at least one of {@code
+   * attendees} is outside the availability that {@code request} gives them. Each attendee's
+   * unavailable time is kept as its own intervals before merging, just like their events.
+   */
+  static BusyIntervals ofUnavailable(
+      MeetingRequest request, Collection<String> attendees, TimeRange window) {
+    if (request.getAvailability().isEmpty() || window.duration() <= 0) {
+      return EMPTY;
+    }
+
+    int minutesPerDay = MinuteBitmap.MINUTES;
+    int firstDay = Math.floorDiv(window.start(), minutesPerDay);
+    int lastDay = Math.floorDiv(window.end() - 1, minutesPerDay);
+    long[] keys = new long[16];
+    int count = 0;
+    for (String attendee : attendees) {
+      MinuteBitmap unavailable = request.getUnavailableMinutes(attendee);
+      if (unavailable == null) {
+        continue;
+      }
+
+      int firstOfAttendee = count;
+      for (int day = firstDay; day <= lastDay; day++) {
+        int base = day * minutesPerDay;
+        for (int start = unavailable.nextBusy(0); start < minutesPerDay;) {
+          int end = unavailable.nextFree(start);
+          if (count > firstOfAttendee && unpackEnd(keys[count - 1]) == base + start) {
+            // The attendee is unavailable across midnight, so the two days' intervals are one.
+            keys[count - 1] = pack(unpackStart(keys[count - 1]), base + end);
+          } else {
+            if (count == keys.length) {
+              keys = Arrays.copyOf(keys, count * 2);
+            }
+            keys[count++] = pack(base + start, base + end);
+          }
+          start = unavailable.nextBusy(end);
+        }
+      }
+    }
+    return fromPacked(keys, count);
+  }
+
+  /**
+   * Sorts and merges the first {@code count} intervals of {@code keys}, each built with {@link
+   * #pack}. The array is sorted in place.
+   */
+  static BusyIntervals fromPacked(long[] keys, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+
+    // Packing the start into the high bits means a plain primitive sort orders by start time.
+    long started = System.nanoTime();
+    Arrays.sort(keys, 0, count);
+    STATS.record(QueryStats.Phase.SORT, started);
+
+    int[] starts = new int[count];
+    int[] ends = new int[count];
+    int size = 0;
+    starts[0] = unpackStart(keys[0]);
+    ends[0] = unpackEnd(keys[0]);
+    for (int i = 1; i < count; i++) {
+      int start = unpackStart(keys[i]);
+      int end = unpackEnd(keys[i]);
+      if (start < ends[size]) {
+        ends[size] = Math.max(ends[size], end);
+      } else {
+        size++;
+        starts[size] = start;
+        ends[size] = end;
+      }
+    }
+    return new BusyIntervals(starts, ends, size + 1);
+  }
+
+  /**
+   * Wraps the first {@code size} intervals of {@code starts} and {@code ends}, which must already
+   * be sorted and merged. The arrays are kept, not copied, and must not be changed afterwards.
+   */
+  static BusyIntervals ofMerged(int[] starts, int[] ends, int size) {
+    return size == 0 ? EMPTY : new BusyIntervals(starts, ends, size);
+  }
+
+  /**
+   * Merges two sets of merged intervals into one, in a single pass over both. The result is the
+   * same as merging all of their intervals at once with {@link #fromPacked}.
+   */
+  static BusyIntervals merge(BusyIntervals a, BusyIntervals b) {
+    if (a.isEmpty()) {
+      return b;
+    }
+    if (b.isEmpty()) {
+      return a;
+    }
+
+    int[] starts = new int[a.size + b.size];
+    int[] ends = new int[a.size + b.size];
+    int size = -1;
+    int i = 0;
+    int j = 0;
+    while (i < a.size || j < b.size) {
+      int start;
+      int end;
+      if (j == b.size || (i < a.size && a.starts[i] <= b.starts[j])) {
+        start = a.starts[i];
+        end = a.ends[i++];
+      } else {
+        start = b.starts[j];
+        end = b.ends[j++];
+      }
+
+      // Like fromPacked, only intervals that overlap are joined and touching ones stay apart.
+      if (size >= 0 && start < ends[size]) {
+        ends[size] = Math.max(ends[size], end);
+      } else {
+        size++;
+        starts[size] = start;
+        ends[size] = end;
+      }
+    }
+    return new BusyIntervals(starts, ends, size + 1);
+  }
+
+  /**
+   * Returns where the number of people in conflict with a meeting of {@code length} minutes
+   * changes, as sorted keys of the minute shifted left by one, with the low bit set where a
+   * conflict starts. Someone busy during {@code [start, end)} conflicts with every meeting that
+   * starts in {@code [start - length + 1, end)}.
+   *
+   * @param busyByPerson The busy times of each person on their own.
+   */
+  static long[] conflictChanges(List<BusyIntervals> busyByPerson, int length) {
+    int count = 0;
+    for (BusyIntervals busy : busyByPerson) {
+      count += 2 * busy.size;
+    }
+
+    long[] changes = new long[count];
+    int next = 0;
+    for (BusyIntervals busy : busyByPerson) {
+      // Merge each person's own conflicts first so that nobody is counted twice.
+      int conflictStart = 0;
+      int conflictEnd = Integer.MIN_VALUE;
+      for (int i = 0; i < busy.size; i++) {
+        int start = busy.starts[i] - length + 1;
+        if (start > conflictEnd) {
+          if (conflictEnd != Integer.MIN_VALUE) {
+            changes[next++] = ((long) conflictStart << 1) | 1;
+            changes[next++] = (long) conflictEnd << 1;
+          }
+          conflictStart = start;
+        }
+        conflictEnd = Math.max(conflictEnd, busy.ends[i]);
+      }
+      if (conflictEnd != Integer.MIN_VALUE) {
+        changes[next++] = ((long) conflictStart << 1) | 1;
+        changes[next++] = (long) conflictEnd << 1;
+      }
+    }
+
+    Arrays.sort(changes, 0, next);
+    return next == count ? changes : Arrays.copyOf(changes, next);
+  }
+
+  /**
+   * Packs an interval into a single {@code long} whose natural order is by start and then by end.
+   */
+  static long pack(int start, int end) {
+    // Flipping the sign bit of the end makes its unsigned order match its signed order.
+    return ((long) start << 32) | ((end ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+  }
+
+  static int unpackStart(long key) {
+    return (int) (key >> 32);
+  }
+
+  static int unpackEnd(long key) {
+    return ((int) key) ^ Integer.MIN_VALUE;
+  }
+
+  /**
+   * Returns the number of merged intervals.
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the index of the first interval that ends after {@code minute}, or {@link #size()} if
+   * none does. Intervals are merged, so their ends are in ascending order too.
+   */
+  int firstEndingAfter(int minute) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] <= minute) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the start of the {@code index}-th interval in minutes.
+   */
+  public int start(int index) {
+    return starts[index];
+  }
+
+  /**
+   * Returns the end of the {@code index}-th interval. This ending value is the closing exclusive
+   * bound.
+   */
+  public int end(int index) {
+    return ends[index];
+  }
+}
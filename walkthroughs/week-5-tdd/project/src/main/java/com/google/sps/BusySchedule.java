@@ -0,0 +1,57 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Something that knows when people are busy, such as an {@link EventIndex} built once from a fixed
+ * set of events or a {@link FreeBusyTracker} that is kept up to date as events change.
+ */
+public interface BusySchedule {
+  /**
+   * Returns the merged times when anyone in {@code attendees} is busy.
+   */
+  BusyIntervals getBusyIntervals(Collection<String> attendees);
+
+  /**
+   * Like {@link #getBusyIntervals(Collection)}, but only the intervals that overlap {@code window}
+   * have to be there. Schedules that can skip work outside the window, such as a {@link
+   * RecurringSchedule}, override this; the rest return every interval.
+   */
+  default BusyIntervals getBusyIntervals(Collection<String> attendees, TimeRange window) {
+    return getBusyIntervals(attendees);
+  }
+
+  /**
+   * Returns the merged busy times of each of {@code attendees} on their own, in the order {@code
+   * attendees} iterates in, which must be without duplicates. Like {@link
+   * #getBusyIntervals(Collection, TimeRange)}, only the intervals that overlap {@code window} have
+   * to be there. Schedules that scan every event on each call, such as a plain list of events,
+   * override this to find everyone's busy times in one scan; the rest ask about each attendee in
+   * turn.
+   */
+  default List<BusyIntervals> getBusyIntervalsOfEach(
+      Collection<String> attendees, TimeRange window) {
+    List<BusyIntervals> busyByAttendee = new ArrayList<>(attendees.size());
+    for (String attendee : attendees) {
+      busyByAttendee.add(getBusyIntervals(Collections.singleton(attendee), window));
+    }
+    return busyByAttendee;
+  }
+}
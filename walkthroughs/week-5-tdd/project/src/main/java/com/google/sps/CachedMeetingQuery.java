@@ -0,0 +1,342 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the answers to recent meeting requests against one {@link BusySchedule}, so that a
+ * request that is asked again is answered without another sweep. Requests with the same required
+ * attendees, optional attendees and duration share an answer, whatever order the attendees were
+ * listed in.
+ *
+ * <p>At most {@code maxEntries} answers are kept, dropping the least recently used first, and an
+ * answer is only used for {@code timeToLive} after it was computed. When events change, call
+ * {@link #invalidate(Event)} so that only the answers involving the event's attendees are dropped.
+ * When the whole event set is replaced, call {@link #invalidateAll()}.
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class CachedMeetingQuery {
+  // A canonical form of a request, plus the version of the event set it was answered against.
+  private static final class Key {
+    final AttendeeSet attendees;
+    final AttendeeSet optionalAttendees;
+    final long duration;
+    final int quorum;
+    final Map<String, List<TimeRange>> availability;
+    final long eventSetVersion;
+    final int hashCode;
+
+    Key(MeetingRequest request, long eventSetVersion) {
+      // Attendee sets are kept sorted, so the same people always make the same key.
+      this.attendees = request.getAttendees();
+      this.optionalAttendees = request.getOptionalAttendees();
+      this.duration = request.getDuration();
+      this.quorum = request.getQuorum();
+      // Copied, because the request's availability can still change after it has been asked.
+      this.availability = request.getAvailability().isEmpty()
+          ? Collections.emptyMap()
+          : new HashMap<>(request.getAvailability());
+      this.eventSetVersion = eventSetVersion;
+      int hash = 31 * attendees.hashCode() + optionalAttendees.hashCode();
+      hash = 31 * hash + Long.hashCode(duration);
+      hash = 31 * hash + quorum;
+      hash = 31 * hash + availability.hashCode();
+      this.hashCode = 31 * hash + Long.hashCode(eventSetVersion);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return duration == key.duration && quorum == key.quorum
+          && eventSetVersion == key.eventSetVersion
+          && attendees.equals(key.attendees) && optionalAttendees.equals(key.optionalAttendees)
+          && availability.equals(key.availability);
+    }
+  }
+
+  private static final class Entry {
+    final Collection<TimeRange> answer;
+    final long expiresAt;
+
+    Entry(Collection<TimeRange> answer, long expiresAt) {
+      this.answer = answer;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  // Hands out the schedule to answer each request against.
+  private final Supplier<? extends BusySchedule> schedules;
+  private final SweepMeetingQuery sweepMeetingQuery = new SweepMeetingQuery();
+  private final int maxEntries;
+  private final long timeToLiveNanos;
+  private final LongSupplier nanoTime;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  // Everything below is guarded by {@code this}.
+  private final LinkedHashMap<Key, Entry> entries;
+  // For each attendee, the keys of the answers that involve them.
+  private final Map<String, Set<Key>> keysByAttendee = new HashMap<>();
+  private long eventSetVersion;
+  // Bumped on every invalidation, so answers computed across one are not stored.
+  private long invalidations;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param schedule The busy times that requests are answered against. Must be non-null.
+   * @param maxEntries The most answers to keep. Must be positive.
+   * @param timeToLive How long an answer can be used for. Must be positive.
+   * @param unit The unit of {@code timeToLive}. Must be non-null.
+   */
+  public CachedMeetingQuery(
+      BusySchedule schedule, int maxEntries, long timeToLive, TimeUnit unit) {
+    this(schedule, maxEntries, unit.toNanos(timeToLive), System::nanoTime);
+  }
+
+  /**
+   * Creates a cache that answers each request against the latest snapshot of {@code store}, and
+   * drops the affected answers whenever the store changes.
+   *
+   * @param store The events that requests are answered against. Must be non-null.
+   * @param maxEntries The most answers to keep. Must be positive.
+   * @param timeToLive How long an answer can be used for. Must be positive.
+   * @param unit The unit of {@code timeToLive}. Must be non-null.
+   */
+  public CachedMeetingQuery(EventStore store, int maxEntries, long timeToLive, TimeUnit unit) {
+    this(checkNotNull(store, "store")::snapshot, maxEntries, unit.toNanos(timeToLive),
+        System::nanoTime);
+    store.addListener(this::invalidate);
+  }
+
+  /**
+   * Creates a cache that answers each request against the schedule that {@code schedules} hands
+   * out at the time. Call {@link #invalidate} when the events behind those schedules change.
+   *
+   * @param schedules Hands out the busy times to answer each request against. Must be non-null.
+   * @param maxEntries The most answers to keep. Must be positive.
+   * @param timeToLive How long an answer can be used for. Must be positive.
+   * @param unit The unit of {@code timeToLive}. Must be non-null.
+   */
+  public CachedMeetingQuery(Supplier<? extends BusySchedule> schedules, int maxEntries,
+      long timeToLive, TimeUnit unit) {
+    this(checkNotNull(schedules, "schedules"), maxEntries, unit.toNanos(timeToLive),
+        System::nanoTime);
+  }
+
+  CachedMeetingQuery(
+      BusySchedule schedule, int maxEntries, long timeToLiveNanos, LongSupplier nanoTime) {
+    this(constant(checkNotNull(schedule, "schedule")), maxEntries, timeToLiveNanos, nanoTime);
+  }
+
+  private CachedMeetingQuery(Supplier<? extends BusySchedule> schedules, int maxEntries,
+      long timeToLiveNanos, LongSupplier nanoTime) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive");
+    }
+    if (timeToLiveNanos <= 0) {
+      throw new IllegalArgumentException("timeToLive must be positive");
+    }
+
+    this.schedules = schedules;
+    this.maxEntries = maxEntries;
+    this.timeToLiveNanos = timeToLiveNanos;
+    this.nanoTime = nanoTime;
+    this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, /* accessOrder= */ true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        if (size() <= CachedMeetingQuery.this.maxEntries) {
+          return false;
+        }
+        forget(eldest.getKey());
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns the open time ranges for {@code request}, from the cache if a fresh answer is there.
+   * The returned collection is read-only.
+   */
+  public Collection<TimeRange> query(MeetingRequest request) {
+    return find(request, null);
+  }
+
+  /**
+   * Like {@link #query(MeetingRequest)}, but if the answer has to be found, first hands {@code
+   * requiredSlots} the open time ranges of the required attendees alone, as {@link
+   * SweepMeetingQuery#query(BusySchedule, MeetingRequest, Consumer)} does. Nothing is handed over
+   * for answers that are already in the cache.
+   */
+  public Collection<TimeRange> query(
+      MeetingRequest request, Consumer<? super Collection<TimeRange>> requiredSlots) {
+    if (requiredSlots == null) {
+      throw new IllegalArgumentException("requiredSlots cannot be null");
+    }
+    return find(request, requiredSlots);
+  }
+
+  // Answers from the cache, or finds the answer, handing requiredSlots to the sweep if non-null.
+  private Collection<TimeRange> find(
+      MeetingRequest request, Consumer<? super Collection<TimeRange>> requiredSlots) {
+    Key key;
+    long invalidationsBefore;
+    synchronized (this) {
+      key = new Key(request, eventSetVersion);
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        if (nanoTime.getAsLong() - entry.expiresAt < 0) {
+          hits.increment();
+          return entry.answer;
+        }
+        entries.remove(key);
+        forget(key);
+      }
+      invalidationsBefore = invalidations;
+    }
+
+    misses.increment();
+    Collection<TimeRange> answer = Collections.unmodifiableList(
+        new ArrayList<>(requiredSlots == null
+            ? sweepMeetingQuery.query(schedules.get(), request)
+            : sweepMeetingQuery.query(schedules.get(), request, requiredSlots)));
+
+    synchronized (this) {
+      // If events changed while the answer was being found, it may already be stale.
+      if (invalidations == invalidationsBefore && !entries.containsKey(key)) {
+        entries.put(key, new Entry(answer, nanoTime.getAsLong() + timeToLiveNanos));
+        remember(key);
+      }
+    }
+    return answer;
+  }
+
+  /**
+   * Drops the answers for every request that involves one of the attendees of {@code event}.
+   * Call this whenever {@code event} is added to, removed from, or moved in the schedule.
+   */
+  public void invalidate(Event event) {
+    invalidate(event.getAttendees());
+  }
+
+  /**
+   * Drops the answers for every request that involves one of {@code attendees}, whether they are
+   * required or optional.
+   */
+  public synchronized void invalidate(Collection<String> attendees) {
+    invalidations++;
+    for (String attendee : attendees) {
+      Set<Key> keys = keysByAttendee.remove(attendee);
+      if (keys == null) {
+        continue;
+      }
+      for (Key key : keys) {
+        if (entries.remove(key) != null) {
+          forget(key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Drops every answer, for when the whole event set has been replaced.
+   */
+  public synchronized void invalidateAll() {
+    invalidations++;
+    eventSetVersion++;
+    entries.clear();
+    keysByAttendee.clear();
+  }
+
+  /**
+   * Returns the number of requests that were answered from the cache.
+   */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of requests that had to be answered by a query.
+   */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of answers in the cache, including expired ones that have not been dropped
+   * yet.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void remember(Key key) {
+    for (String attendee : key.attendees) {
+      keysByAttendee.computeIfAbsent(attendee, unused -> new HashSet<>()).add(key);
+    }
+    for (String attendee : key.optionalAttendees) {
+      keysByAttendee.computeIfAbsent(attendee, unused -> new HashSet<>()).add(key);
+    }
+  }
+
+  private void forget(Key key) {
+    forget(key, key.attendees);
+    forget(key, key.optionalAttendees);
+  }
+
+  private void forget(Key key, AttendeeSet attendees) {
+    for (String attendee : attendees) {
+      Set<Key> keys = keysByAttendee.get(attendee);
+      if (keys != null && keys.remove(key) && keys.isEmpty()) {
+        keysByAttendee.remove(attendee);
+      }
+    }
+  }
+
+  private static <T> T checkNotNull(T value, String name) {
+    if (value == null) {
+      throw new IllegalArgumentException(name + " cannot be null");
+    }
+    return value;
+  }
+
+  private static Supplier<BusySchedule> constant(BusySchedule schedule) {
+    return () -> schedule;
+  }
+}
@@ -14,10 +14,14 @@
 
 package com.google.sps;
 
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Event is the container class for when a specific group of people are meeting and are therefore
@@ -26,7 +30,8 @@ import java.util.Set;
 public final class Event {
   private final String title;
   private final TimeRange when;
-  private final Set<String> attendees = new HashSet<>();
+  @JsonAdapter(AttendeeSet.GsonAdapter.class)
+  private final AttendeeSet attendees;
 
   /**
    * Creates a new event.
@@ -50,7 +55,7 @@ public final class Event {
 
     this.title = title;
     this.when = when;
-    this.attendees.addAll(attendees);
+    this.attendees = AttendeeSet.of(attendees);
   }
 
   /**
@@ -70,10 +75,9 @@ public final class Event {
   /**
    * Returns a read-only set of required attendees for this event.
    */
-  public Set<String> getAttendees() {
-    // Return the attendees as an unmodifiable set so that the caller can't change our
-    // internal data.
-    return Collections.unmodifiableSet(attendees);
+  public AttendeeSet getAttendees() {
+    // The set is read-only, so it can be handed out without copying or wrapping it.
+    return attendees;
   }
 
   @Override
@@ -93,4 +97,66 @@ public final class Event {
     // interface documentation, equals will check for set-equality across all set implementations.
     return a.title.equals(b.title) && a.when.equals(b.when) && a.attendees.equals(b.attendees);
   }
+
+  /**
+   * Reads and writes an {@code Event} as {@code {"title": ..., "when": ..., "attendees": [...]}}
+   * straight from the JSON stream. Unlike reflection, reading goes through the constructor, so a
+   * missing title or time is an error and missing attendees are an empty set.
+   */
+  public static final class GsonAdapter extends TypeAdapter<Event> {
+    private final TimeRange.GsonAdapter timeRangeAdapter = new TimeRange.GsonAdapter();
+    private final AttendeeSet.GsonAdapter attendeesAdapter = new AttendeeSet.GsonAdapter();
+
+    @Override
+    public void write(JsonWriter out, Event event) throws IOException {
+      if (event == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("title").value(event.title);
+      out.name("when");
+      timeRangeAdapter.write(out, event.when);
+      out.name("attendees");
+      attendeesAdapter.write(out, event.attendees);
+      out.endObject();
+    }
+
+    @Override
+    public Event read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      String title = null;
+      TimeRange when = null;
+      AttendeeSet attendees = AttendeeSet.EMPTY;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "title":
+            title = in.peek() == JsonToken.NULL ? skipNull(in) : in.nextString();
+            break;
+          case "when":
+            when = timeRangeAdapter.read(in);
+            break;
+          case "attendees":
+            attendees = attendeesAdapter.read(in);
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      if (title == null || when == null) {
+        throw new JsonParseException("Every event needs a title and a time");
+      }
+      return new Event(title, when, attendees);
+    }
+
+    private static String skipNull(JsonReader in) throws IOException {
+      in.nextNull();
+      return null;
+    }
+  }
 }
@@ -0,0 +1,313 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A read-only calendar stored column by column in a file written by {@link EventFileWriter}. The
+ * file is memory-mapped, and opening it only reads the header and the attendee names, so it costs
+ * the same whether the names share ten events or ten million. Everything else is checked as it is
+ * read, and a malformed entry found then throws {@link UncheckedIOException}.
+ *
+ * <p>The file also lists each attendee's events, so {@link #getBusyIntervals} only reads the
+ * events of the attendees it is asked about, straight from the columns and without creating any
+ * {@code Event}s. Events are only built, one at a time, when they are asked for.
+ *
+ * <p>All numbers in the file are big-endian {@code int}s. The file is laid out as:
+ *
+ * <pre>
+ *   magic, version, eventCount, attendeeIdCount, titleCount, nameCount
+ *   starts[eventCount]
+ *   durations[eventCount]
+ *   titleIndexes[eventCount]         index into the title table
+ *   attendeeOffsets[eventCount + 1]  where each event's attendees start in attendeeIds
+ *   attendeeIds[attendeeIdCount]     index into the name table, sorted within each event
+ *   eventOffsets[nameCount + 1]      where each attendee's events start in eventIndexes
+ *   eventIndexes[attendeeIdCount]    index of an event, sorted within each attendee
+ *   title table: offsets[titleCount + 1], then the UTF-8 bytes of every title
+ *   name table: offsets[nameCount + 1], then the UTF-8 bytes of every name
+ * </pre>
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class EventFile implements BusySchedule {
+  static final int MAGIC = 0x45565453; // "EVTS"
+  static final int VERSION = 2;
+
+  // Counts the events scanned, for the /query-stats page.
+  private static final QueryStats STATS = QueryStats.getDefault();
+
+  private final int size;
+  private final IntBuffer starts;
+  private final IntBuffer durations;
+  private final IntBuffer titleIndexes;
+  private final IntBuffer attendeeOffsets;
+  private final IntBuffer attendeeIds;
+  private final IntBuffer eventOffsets;
+  private final IntBuffer eventIndexes;
+  private final StringTable titles;
+  private final StringTable names;
+
+  // Only the attendee names are decoded up front, so queries can find their IDs.
+  private final Map<String, Integer> nameIds = new HashMap<>();
+
+  private EventFile(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 6 * Integer.BYTES || buffer.getInt() != MAGIC) {
+      throw new IOException("Not an event file");
+    }
+    int version = buffer.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported event file version: " + version);
+    }
+    size = buffer.getInt();
+    int attendeeIdCount = buffer.getInt();
+    int titleCount = buffer.getInt();
+    int nameCount = buffer.getInt();
+    if (size < 0 || attendeeIdCount < 0 || titleCount < 0 || nameCount < 0) {
+      throw new IOException("Malformed event file: negative count");
+    }
+
+    starts = ints(buffer, size);
+    durations = ints(buffer, size);
+    titleIndexes = ints(buffer, size);
+    attendeeOffsets = ints(buffer, size + 1);
+    attendeeIds = ints(buffer, attendeeIdCount);
+    eventOffsets = ints(buffer, nameCount + 1);
+    eventIndexes = ints(buffer, attendeeIdCount);
+    titles = new StringTable(buffer, titleCount);
+    names = new StringTable(buffer, nameCount);
+
+    // Only the ends of the offsets are checked here; each range is checked when it is read.
+    if (attendeeOffsets.get(0) != 0 || attendeeOffsets.get(size) != attendeeIdCount) {
+      throw new IOException("Malformed event file: bad attendee offset");
+    }
+    if (eventOffsets.get(0) != 0 || eventOffsets.get(nameCount) != attendeeIdCount) {
+      throw new IOException("Malformed event file: bad event offset");
+    }
+    try {
+      for (int i = 0; i < nameCount; i++) {
+        nameIds.put(names.get(i, "attendee"), i);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Maps the event file at {@code path} into memory.
+   */
+  public static EventFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException(path + " is too large to map");
+      }
+      // The mapping stays valid after the channel is closed.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new EventFile(buffer);
+    }
+  }
+
+  /**
+   * Returns the number of events in the file.
+   */
+  public int size() {
+    return size;
+  }
+
+  public int start(int index) {
+    checkEvent(index);
+    return starts.get(index);
+  }
+
+  public int duration(int index) {
+    checkEvent(index);
+    return durations.get(index);
+  }
+
+  public String title(int index) {
+    checkEvent(index);
+    return titles.get(titleIndexes.get(index), "title");
+  }
+
+  /**
+   * Builds the event at {@code index}.
+   */
+  public Event getEvent(int index) {
+    checkEvent(index);
+    int first = attendeeOffsets.get(index);
+    int last = attendeeOffsets.get(index + 1);
+    checkRange(first, last, attendeeIds, "attendee offset");
+    String[] attendees = new String[last - first];
+    for (int i = first; i < last; i++) {
+      attendees[i - first] = names.get(attendeeIds.get(i), "attendee");
+    }
+    return new Event(titles.get(titleIndexes.get(index), "title"),
+        TimeRange.fromStartDuration(starts.get(index), durations.get(index)),
+        Arrays.asList(attendees));
+  }
+
+  /**
+   * Returns a read-only list view of the events, which builds each event as it is read.
+   */
+  public List<Event> asList() {
+    return new EventList();
+  }
+
+  @Override
+  public BusyIntervals getBusyIntervals(Collection<String> attendees) {
+    long[] keys = new long[16];
+    int keyCount = 0;
+    int scanned = 0;
+    for (String attendee : attendees) {
+      Integer id = nameIds.get(attendee);
+      if (id == null) {
+        continue;
+      }
+      int first = eventOffsets.get(id);
+      int last = eventOffsets.get(id + 1);
+      checkRange(first, last, eventIndexes, "event offset");
+      scanned += last - first;
+      for (int i = first; i < last; i++) {
+        int index = eventIndexes.get(i);
+        if (index < 0 || index >= size) {
+          throw malformed("event index");
+        }
+        int duration = durations.get(index);
+        if (duration <= 0) {
+          continue;
+        }
+        if (keyCount == keys.length) {
+          keys = Arrays.copyOf(keys, keyCount * 2);
+        }
+        int start = starts.get(index);
+        keys[keyCount++] = BusyIntervals.pack(start, start + duration);
+      }
+    }
+    if (scanned > 0) {
+      STATS.count(QueryStats.Counter.EVENTS_SCANNED, scanned);
+      STATS.count(QueryStats.Counter.EVENTS_KEPT, keyCount);
+    }
+    return BusyIntervals.fromPacked(keys, keyCount);
+  }
+
+  private void checkEvent(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " is out of bounds");
+    }
+  }
+
+  /**
+   * Returns the next {@code count} ints of {@code buffer} and moves past them.
+   */
+  private static IntBuffer ints(ByteBuffer buffer, int count) throws IOException {
+    if (count < 0) {
+      throw new IOException("Malformed event file: too many entries");
+    }
+    ByteBuffer bytes = slice(buffer, (long) count * Integer.BYTES);
+    return bytes.asIntBuffer();
+  }
+
+  /**
+   * Returns the next {@code length} bytes of {@code buffer} and moves past them.
+   */
+  private static ByteBuffer slice(ByteBuffer buffer, long length) throws IOException {
+    if (length > buffer.remaining()) {
+      throw new IOException("Malformed event file: truncated");
+    }
+    ByteBuffer slice = buffer.slice();
+    // Buffer's methods are called through Buffer so that this still runs on Java 8.
+    ((Buffer) slice).limit((int) length);
+    ((Buffer) buffer).position(buffer.position() + (int) length);
+    return slice;
+  }
+
+  /**
+   * Checks that {@code [first, last)}, read from a column of offsets, is a range of {@code
+   * column}.
+   */
+  private static void checkRange(int first, int last, IntBuffer column, String name) {
+    if (first < 0 || first > last || last > column.limit()) {
+      throw malformed(name);
+    }
+  }
+
+  private static UncheckedIOException malformed(String name) {
+    return new UncheckedIOException(new IOException("Malformed event file: bad " + name));
+  }
+
+  // A table of strings stored as offsets into one block of UTF-8 bytes.
+  private static final class StringTable {
+    private final IntBuffer offsets;
+    private final ByteBuffer bytes;
+
+    StringTable(ByteBuffer buffer, int count) throws IOException {
+      offsets = ints(buffer, count + 1);
+      int length = offsets.get(count);
+      if (offsets.get(0) != 0 || length < 0) {
+        throw new IOException("Malformed event file: bad string offset");
+      }
+      bytes = slice(buffer, length);
+    }
+
+    /**
+     * Returns the string at {@code index}, which was read from the file as a {@code name} index.
+     */
+    String get(int index, String name) {
+      if (index < 0 || index >= offsets.limit() - 1) {
+        throw malformed(name + " index");
+      }
+      int start = offsets.get(index);
+      int end = offsets.get(index + 1);
+      if (start < 0 || start > end || end > bytes.limit()) {
+        throw malformed("string offset");
+      }
+      byte[] utf8 = new byte[end - start];
+      // Read through a duplicate so that concurrent readers never share a position.
+      ByteBuffer reader = bytes.duplicate();
+      ((Buffer) reader).position(start);
+      reader.get(utf8);
+      return new String(utf8, StandardCharsets.UTF_8);
+    }
+  }
+
+  private final class EventList extends AbstractList<Event> implements RandomAccess {
+    @Override
+    public Event get(int index) {
+      return getEvent(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
@@ -0,0 +1,156 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a calendar from JSON or CSV into an {@link EventFile}.
+ *
+ * <p>JSON input is an array of events in the same shape that {@code /get-events} returns. CSV
+ * input has one event per line with the columns {@code title,start,duration,attendees}, where
+ * {@code attendees} is a {@code ;}-separated list of names. Fields may be quoted with {@code "},
+ * and a first line that starts with {@code title,} is skipped as a header.
+ *
+ * <p>Usage: {@code EventFileConverter <input.json|input.csv> <output>}
+ */
+public final class EventFileConverter {
+  private static final Gson GSON = JsonCodecs.getGson();
+
+  private EventFileConverter() {
+    // Disallow instances
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: EventFileConverter <input.json|input.csv> <output>");
+      System.exit(2);
+    }
+
+    Path input = Paths.get(args[0]);
+    EventFileWriter writer = new EventFileWriter();
+    try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+      if (args[0].toLowerCase().endsWith(".csv")) {
+        readCsv(reader, writer);
+      } else {
+        readJson(reader, writer);
+      }
+    }
+    writer.write(Paths.get(args[1]));
+    System.out.println("Wrote " + writer.size() + " events to " + args[1]);
+  }
+
+  /**
+   * Adds every event in a JSON array to {@code writer}, one event at a time.
+   */
+  public static void readJson(Reader reader, EventFileWriter writer) throws IOException {
+    JsonReader json = new JsonReader(reader);
+    try {
+      json.beginArray();
+      while (json.hasNext()) {
+        Event event = GSON.fromJson(json, Event.class);
+        if (event == null) {
+          throw new IOException("Every event needs a title and a time");
+        }
+        writer.add(event.getTitle(), event.getWhen(), event.getAttendees());
+      }
+      json.endArray();
+    } catch (JsonParseException | IllegalStateException e) {
+      throw new IOException("Malformed JSON: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Adds every event in a CSV file to {@code writer}, one line at a time.
+   */
+  public static void readCsv(BufferedReader reader, EventFileWriter writer) throws IOException {
+    int lineNumber = 0;
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      lineNumber++;
+      if (line.trim().isEmpty() || (lineNumber == 1 && line.startsWith("title,"))) {
+        continue;
+      }
+
+      List<String> fields = splitCsvLine(line, lineNumber);
+      if (fields.size() != 4) {
+        throw new IOException(
+            "Line " + lineNumber + ": expected 4 fields but got " + fields.size());
+      }
+      int start;
+      int duration;
+      try {
+        start = Integer.parseInt(fields.get(1).trim());
+        duration = Integer.parseInt(fields.get(2).trim());
+      } catch (NumberFormatException e) {
+        throw new IOException(
+            "Line " + lineNumber + ": start and duration must be whole minutes");
+      }
+
+      List<String> attendees = new ArrayList<>();
+      for (String attendee : fields.get(3).split(";")) {
+        if (!attendee.trim().isEmpty()) {
+          attendees.add(attendee.trim());
+        }
+      }
+      writer.add(fields.get(0), TimeRange.fromStartDuration(start, duration), attendees);
+    }
+  }
+
+  /**
+   * Splits one CSV line into fields. A quoted field can contain commas, and {@code ""} inside it
+   * stands for one quote.
+   */
+  static List<String> splitCsvLine(String line, int lineNumber) throws IOException {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IOException("Line " + lineNumber + ": unterminated quote");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
@@ -0,0 +1,191 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects events column by column and writes them out as an {@link EventFile}. Titles and
+ * attendee names are stored once each, however many events share them, and each attendee's events
+ * are listed when the file is written.
+ *
+ * <p>Instances are not thread-safe.
+ */
+public final class EventFileWriter {
+  private int size;
+  private int[] starts = new int[16];
+  private int[] durations = new int[16];
+  private int[] titleIndexes = new int[16];
+  private int[] attendeeOffsets = new int[17];
+  private int[] attendeeIds = new int[16];
+  private int attendeeIdCount;
+
+  private final Map<String, Integer> titleIndex = new HashMap<>();
+  private final List<String> titles = new ArrayList<>();
+  private final Map<String, Integer> nameIndex = new HashMap<>();
+  private final List<String> names = new ArrayList<>();
+
+  public void add(Event event) {
+    add(event.getTitle(), event.getWhen(), event.getAttendees());
+  }
+
+  /**
+   * Adds one event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time when the event takes place. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public void add(String title, TimeRange when, Collection<String> attendees) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+    if (attendees == null) {
+      throw new IllegalArgumentException("attendees cannot be null. Use empty array instead.");
+    }
+
+    if (size == starts.length) {
+      int capacity = size * 2;
+      starts = Arrays.copyOf(starts, capacity);
+      durations = Arrays.copyOf(durations, capacity);
+      titleIndexes = Arrays.copyOf(titleIndexes, capacity);
+      attendeeOffsets = Arrays.copyOf(attendeeOffsets, capacity + 1);
+    }
+    starts[size] = when.start();
+    durations[size] = when.duration();
+    titleIndexes[size] = indexOf(title, titleIndex, titles);
+
+    int[] ids = new int[attendees.size()];
+    int count = 0;
+    for (String attendee : attendees) {
+      if (attendee == null) {
+        throw new IllegalArgumentException("attendees cannot contain null");
+      }
+      ids[count++] = indexOf(attendee, nameIndex, names);
+    }
+    Arrays.sort(ids);
+    while (attendeeIdCount + ids.length > attendeeIds.length) {
+      attendeeIds = Arrays.copyOf(attendeeIds, attendeeIds.length * 2);
+    }
+    for (int i = 0; i < ids.length; i++) {
+      if (i == 0 || ids[i] != ids[i - 1]) {
+        attendeeIds[attendeeIdCount++] = ids[i];
+      }
+    }
+
+    size++;
+    attendeeOffsets[size] = attendeeIdCount;
+  }
+
+  /**
+   * Returns the number of events added so far.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Writes every event added so far to {@code path}, replacing anything already there.
+   */
+  public void write(Path path) throws IOException {
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+      out.writeInt(EventFile.MAGIC);
+      out.writeInt(EventFile.VERSION);
+      out.writeInt(size);
+      out.writeInt(attendeeIdCount);
+      out.writeInt(titles.size());
+      out.writeInt(names.size());
+      writeInts(out, starts, size);
+      writeInts(out, durations, size);
+      writeInts(out, titleIndexes, size);
+      writeInts(out, attendeeOffsets, size + 1);
+      writeInts(out, attendeeIds, attendeeIdCount);
+      writeEventsByAttendee(out);
+      writeStrings(out, titles);
+      writeStrings(out, names);
+    }
+  }
+
+  /**
+   * Writes where each attendee's events start and then the events themselves, in order, by
+   * counting how many events each attendee has.
+   */
+  private void writeEventsByAttendee(DataOutputStream out) throws IOException {
+    int[] eventOffsets = new int[names.size() + 1];
+    for (int i = 0; i < attendeeIdCount; i++) {
+      eventOffsets[attendeeIds[i] + 1]++;
+    }
+    for (int i = 0; i < names.size(); i++) {
+      eventOffsets[i + 1] += eventOffsets[i];
+    }
+
+    int[] eventIndexes = new int[attendeeIdCount];
+    int[] next = Arrays.copyOf(eventOffsets, names.size());
+    for (int event = 0; event < size; event++) {
+      for (int i = attendeeOffsets[event]; i < attendeeOffsets[event + 1]; i++) {
+        eventIndexes[next[attendeeIds[i]]++] = event;
+      }
+    }
+    writeInts(out, eventOffsets, eventOffsets.length);
+    writeInts(out, eventIndexes, attendeeIdCount);
+  }
+
+  private static int indexOf(String value, Map<String, Integer> index, List<String> values) {
+    Integer existing = index.get(value);
+    if (existing != null) {
+      return existing;
+    }
+    index.put(value, values.size());
+    values.add(value);
+    return values.size() - 1;
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values, int count)
+      throws IOException {
+    for (int i = 0; i < count; i++) {
+      out.writeInt(values[i]);
+    }
+  }
+
+  private static void writeStrings(DataOutputStream out, List<String> strings)
+      throws IOException {
+    byte[][] encoded = new byte[strings.size()][];
+    int offset = 0;
+    out.writeInt(offset);
+    for (int i = 0; i < encoded.length; i++) {
+      encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+      offset = Math.addExact(offset, encoded[i].length);
+      out.writeInt(offset);
+    }
+    for (byte[] bytes : encoded) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EventIndex maps each attendee to the times they are busy, so a query only has to look at the
+ * events of the people it asks about instead of every event on the calendar. The index is a
+ * snapshot and does not change if the events it was built from change.
+ */
+public final class EventIndex implements BusySchedule {
+  // Counts the busy times read, for the /query-stats page.
+  private static final QueryStats STATS = QueryStats.getDefault();
+
+  private final Map<String, List<TimeRange>> busyTimes = new HashMap<>();
+
+  // Each attendee's busy minutes, built the first time someone asks for them.
+  private final Map<String, MinuteBitmap> busyMinutes = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new index.
+   *
+   * @param events The events that attendees are busy with. Must be non-null.
+   */
+  public EventIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    for (Event event : events) {
+      // An event with no duration never makes anyone busy, so there is no reason to keep it.
+      if (event.getWhen().duration() <= 0) {
+        continue;
+      }
+      for (String attendee : event.getAttendees()) {
+        busyTimes.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event.getWhen());
+      }
+    }
+
+    for (Map.Entry<String, List<TimeRange>> entry : busyTimes.entrySet()) {
+      List<TimeRange> ranges = entry.getValue();
+      ranges.sort(TimeRange.ORDER_BY_START);
+      entry.setValue(Collections.unmodifiableList(ranges));
+    }
+  }
+
+  private EventIndex(
+      Map<String, List<TimeRange>> busyTimes, Map<String, MinuteBitmap> busyMinutes) {
+    this.busyTimes.putAll(busyTimes);
+    this.busyMinutes.putAll(busyMinutes);
+  }
+
+  /**
+   * Returns an index that also has {@code event}. The busy times of everyone who isn't attending
+   * {@code event} are shared with this index rather than copied, and this index is left as it is.
+   */
+  public EventIndex with(Event event) {
+    return change(event, true);
+  }
+
+  /**
+   * Returns an index without one copy of {@code event}, which must be in this index. Like {@link
+   * #with}, this index is left as it is.
+   */
+  public EventIndex without(Event event) {
+    return change(event, false);
+  }
+
+  private EventIndex change(Event event, boolean add) {
+    TimeRange when = event.getWhen();
+    if (when.duration() <= 0) {
+      return this;
+    }
+
+    EventIndex changed = new EventIndex(busyTimes, busyMinutes);
+    for (String attendee : event.getAttendees()) {
+      changed.busyMinutes.remove(attendee);
+      List<TimeRange> ranges = new ArrayList<>(getBusyTimes(attendee));
+      if (add) {
+        // Insert after every range that starts no later, keeping the list sorted by start time.
+        int index = ranges.size();
+        while (index > 0 && ranges.get(index - 1).start() > when.start()) {
+          index--;
+        }
+        ranges.add(index, when);
+      } else if (!ranges.remove(when)) {
+        throw new IllegalArgumentException("event is not in the index");
+      }
+
+      if (ranges.isEmpty()) {
+        changed.busyTimes.remove(attendee);
+      } else {
+        changed.busyTimes.put(attendee, Collections.unmodifiableList(ranges));
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns a read-only list of the times when {@code attendee} is busy, sorted by start time.
+   */
+  public List<TimeRange> getBusyTimes(String attendee) {
+    List<TimeRange> ranges = busyTimes.get(attendee);
+    return ranges == null ? Collections.emptyList() : ranges;
+  }
+
+  /**
+   * Returns the read-only set of everyone who is busy at some point.
+   */
+  public Collection<String> getAttendees() {
+    return Collections.unmodifiableSet(busyTimes.keySet());
+  }
+
+  /**
+   * Merges the busy times of everyone in {@code attendees}. This only touches the events those
+   * people are attending.
+   */
+  public BusyIntervals getBusyIntervals(Collection<String> attendees) {
+    int count = 0;
+    for (String attendee : attendees) {
+      count += getBusyTimes(attendee).size();
+    }
+
+    // Each attendee's times are already sorted, so the keys arrive as sorted runs, which the
+    // primitive sort inside BusyIntervals merges cheaply.
+    long[] keys = new long[count];
+    int next = 0;
+    for (String attendee : attendees) {
+      for (TimeRange range : getBusyTimes(attendee)) {
+        keys[next++] = BusyIntervals.pack(range.start(), range.end());
+      }
+    }
+    // The index only ever reads the busy times of the people asked about.
+    STATS.count(QueryStats.Counter.EVENTS_SCANNED, count);
+    STATS.count(QueryStats.Counter.EVENTS_KEPT, count);
+    return BusyIntervals.fromPacked(keys, count);
+  }
+
+  /**
+   * Returns a bitmap of the minutes of the day when anyone in {@code attendees} is busy. The bitmap
+   * of each attendee is only built once, so this costs a few word ORs per attendee.
+   */
+  public MinuteBitmap getBusyMinutes(Collection<String> attendees) {
+    MinuteBitmap busy = new MinuteBitmap();
+    for (String attendee : attendees) {
+      // Only cache people we know about so that unknown names in requests can't grow the cache.
+      if (busyTimes.containsKey(attendee)) {
+        busy.or(busyMinutes.computeIfAbsent(attendee, this::toMinuteBitmap));
+      }
+    }
+    return busy;
+  }
+
+  private MinuteBitmap toMinuteBitmap(String attendee) {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    for (TimeRange range : busyTimes.get(attendee)) {
+      bitmap.setBusy(range.start(), range.end());
+    }
+    return bitmap;
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An interval tree over events that finds every event overlapping a window in
+ * {@code O(log n + k)} time, where {@code k} is the number of events found, instead of checking
+ * every event with {@link TimeRange#overlaps}.
+ *
+ * <p>The events are kept sorted by start time and the tree is implicit: the middle event of any
+ * slice of the array is the root of that slice, and the two halves are its subtrees. For each root
+ * the tree remembers the latest end in its subtree, which lets a search skip whole subtrees that
+ * finish before the window starts. The tree is read-only once built.
+ */
+public final class EventIntervalTree {
+  private final Event[] events;
+  private final int[] starts;
+  // The latest end of any event in the subtree rooted at each index.
+  private final int[] maxEnds;
+
+  /**
+   * Creates a new tree.
+   *
+   * @param events The events to search. Must be non-null.
+   */
+  public EventIntervalTree(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    this.events = events.toArray(new Event[0]);
+    Arrays.sort(this.events, (a, b) -> TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen()));
+    starts = new int[this.events.length];
+    maxEnds = new int[this.events.length];
+    for (int i = 0; i < this.events.length; i++) {
+      starts[i] = this.events[i].getWhen().start();
+    }
+    computeMaxEnds(0, this.events.length);
+  }
+
+  private int computeMaxEnds(int from, int to) {
+    if (from >= to) {
+      return Integer.MIN_VALUE;
+    }
+
+    int root = (from + to) >>> 1;
+    int maxEnd = Math.max(effectiveEnd(events[root].getWhen()),
+        Math.max(computeMaxEnds(from, root), computeMaxEnds(root + 1, to)));
+    maxEnds[root] = maxEnd;
+    return maxEnd;
+  }
+
+  /**
+   * Returns the number of events in the tree.
+   */
+  public int size() {
+    return events.length;
+  }
+
+  /**
+   * Returns every event that overlaps {@code window}, as {@link TimeRange#overlaps} defines it,
+   * sorted by start time.
+   */
+  public List<Event> getOverlapping(TimeRange window) {
+    List<Event> overlapping = new ArrayList<>();
+    collectOverlapping(window, 0, events.length, overlapping);
+    return overlapping;
+  }
+
+  private void collectOverlapping(TimeRange window, int from, int to, List<Event> overlapping) {
+    if (from >= to) {
+      return;
+    }
+
+    int root = (from + to) >>> 1;
+    // Nothing in this subtree ends after the window starts.
+    if (maxEnds[root] <= window.start()) {
+      return;
+    }
+
+    collectOverlapping(window, from, root, overlapping);
+    // Events to the right start no earlier than the root, so if the root starts after the window
+    // ends, none of them can overlap it either.
+    if (starts[root] >= effectiveEnd(window)) {
+      return;
+    }
+    if (events[root].getWhen().overlaps(window)) {
+      overlapping.add(events[root]);
+    }
+    collectOverlapping(window, root + 1, to, overlapping);
+  }
+
+  /**
+   * Returns the end of {@code range}, treating a range with no duration as covering its start so
+   * that it can still overlap the ranges around it.
+   */
+  private static int effectiveEnd(TimeRange range) {
+    return Math.max(range.end(), range.start() + 1);
+  }
+}
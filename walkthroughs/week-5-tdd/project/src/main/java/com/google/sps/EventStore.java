@@ -0,0 +1,188 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * A calendar that events can be added to and removed from while it is being queried. Readers take
+ * a {@link Snapshot}, which never changes, so a query never blocks on a writer and never sees half
+ * of an update. Writers build the next snapshot next to the current one and swap it in with a
+ * single compare-and-set, retrying if another writer got there first.
+ *
+ * <p>Each snapshot shares the busy times of everyone an update doesn't touch with the snapshot
+ * before it, so an update costs a copy of the event list and of the changed attendees' times.
+ */
+public final class EventStore {
+  /**
+   * The events in the store at one point in time, and who is busy when because of them.
+   */
+  public static final class Snapshot implements BusySchedule {
+    private final List<Event> events;
+    private final EventIndex index;
+    private final long version;
+
+    private Snapshot(List<Event> events, EventIndex index, long version) {
+      this.events = events;
+      this.index = index;
+      this.version = version;
+    }
+
+    /**
+     * Returns a read-only list of the events, in the order they were added.
+     */
+    public List<Event> getEvents() {
+      return events;
+    }
+
+    /**
+     * Returns the index of who is busy when.
+     */
+    public EventIndex getIndex() {
+      return index;
+    }
+
+    /**
+     * Returns how many updates led up to this snapshot. Later snapshots have larger versions.
+     */
+    public long getVersion() {
+      return version;
+    }
+
+    @Override
+    public BusyIntervals getBusyIntervals(Collection<String> attendees) {
+      return index.getBusyIntervals(attendees);
+    }
+  }
+
+  private final AtomicReference<Snapshot> current;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Creates a store that starts out with {@code events}.
+   *
+   * @param events The events that attendees are busy with. Must be non-null.
+   */
+  public EventStore(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    List<Event> copy = new ArrayList<>(events);
+    current = new AtomicReference<>(
+        new Snapshot(Collections.unmodifiableList(copy), new EventIndex(copy), 0));
+  }
+
+  /**
+   * Returns the events as they are right now. The snapshot never changes, even as the store does.
+   */
+  public Snapshot snapshot() {
+    return current.get();
+  }
+
+  /**
+   * Adds {@code event} and returns the snapshot that has it.
+   */
+  public Snapshot add(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    Snapshot next;
+    while (true) {
+      Snapshot previous = current.get();
+      List<Event> events = new ArrayList<>(previous.events.size() + 1);
+      events.addAll(previous.events);
+      events.add(event);
+      next = new Snapshot(Collections.unmodifiableList(events), previous.index.with(event),
+          previous.version + 1);
+      if (current.compareAndSet(previous, next)) {
+        break;
+      }
+    }
+    for (Listener listener : listeners) {
+      listener.added.accept(event);
+    }
+    return next;
+  }
+
+  /**
+   * Removes one copy of {@code event}. Returns {@code false} if the store doesn't have it.
+   */
+  public boolean remove(Event event) {
+    while (true) {
+      Snapshot previous = current.get();
+      int position = previous.events.indexOf(event);
+      if (position < 0) {
+        return false;
+      }
+
+      List<Event> events = new ArrayList<>(previous.events);
+      events.remove(position);
+      Snapshot next = new Snapshot(Collections.unmodifiableList(events),
+          previous.index.without(event), previous.version + 1);
+      if (current.compareAndSet(previous, next)) {
+        for (Listener listener : listeners) {
+          listener.removed.accept(event);
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Calls {@code listener} with every event that is added or removed, after the change is visible
+   * to readers. Use this to drop answers that were cached before the change, such as with {@link
+   * CachedMeetingQuery#invalidate(Event)}.
+   */
+  public void addListener(Consumer<Event> listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("listener cannot be null");
+    }
+    listeners.add(new Listener(listener, listener));
+  }
+
+  /**
+   * Calls {@code added} with every event that is added and {@code removed} with every event that
+   * is removed, after the change is visible to readers. Use this to keep something built from the
+   * events up to date, such as a {@link FreeBusyTracker}. Changes made at the same time by
+   * different threads may be reported in either order.
+   */
+  public void addListener(Consumer<Event> added, Consumer<Event> removed) {
+    if (added == null) {
+      throw new IllegalArgumentException("added cannot be null");
+    }
+    if (removed == null) {
+      throw new IllegalArgumentException("removed cannot be null");
+    }
+    listeners.add(new Listener(added, removed));
+  }
+
+  private static final class Listener {
+    final Consumer<Event> added;
+    final Consumer<Event> removed;
+
+    Listener(Consumer<Event> added, Consumer<Event> removed) {
+      this.added = added;
+      this.removed = removed;
+    }
+  }
+}
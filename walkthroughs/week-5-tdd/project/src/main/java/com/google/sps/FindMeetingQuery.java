@@ -16,125 +16,226 @@ package com.google.sps;
 
 
 import static java.util.Collections.EMPTY_LIST;
-import static java.util.Collections.disjoint;
 import static java.util.Collections.sort;
 import static java.util.Arrays.asList;
 
-import java.util.Optional;
 import java.util.Comparator;
 import java.util.Collection;
 import java.util.ArrayList;
 import java.util.List;
 
 // FindMeetingQuery finds open meeting timeslots throughout the day.
-public final class FindMeetingQuery {
+public final class FindMeetingQuery implements MeetingQuery {
+  // Where each phase of the query spends its time, for the /query-stats page.
+  private final QueryStats stats = QueryStats.getDefault();
 
   /** 
   *  @param events Set of events that attendees have, that need to be avoided.
   *  @param request The duration of requested meeting and people attending. 
   *  @return A list of open meeting timeslots.  
   */
+  @Override
   public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
       if(request.getDuration() > TimeRange.WHOLE_DAY.duration()){
           return EMPTY_LIST;
       }
-      if(events.isEmpty()){
+      if(request.hasPartialQuorum()){
+          return new QuorumMeetingQuery().query(events, request);
+      }
+      if(events.isEmpty() && request.getAvailability().isEmpty()){
           return asList(TimeRange.WHOLE_DAY);
       }
-      Collection<TimeRange> requiredAttendeeTimeRangeResult = new ArrayList<>();
-      Collection<TimeRange> optionalAttendeeTimeRangeResult = new ArrayList<>();
+      TimeRangeArray requiredAttendeeTimeRangeResult;
      if(!request.getAttendees().isEmpty()){
           requiredAttendeeTimeRangeResult = getOpenTimeSlots(events, request, request.getAttendees());
       } else if(!request.getOptionalAttendees().isEmpty()){
-           return getOpenTimeSlots(events, request, request.getOptionalAttendees());
+           return getOpenTimeSlots(events, request, request.getOptionalAttendees()).toList();
       } else{
           return asList(TimeRange.WHOLE_DAY);
       }
-      optionalAttendeeTimeRangeResult = checkOptionalAttendees(events, requiredAttendeeTimeRangeResult, request);
+      checkOptionalAttendees(events, requiredAttendeeTimeRangeResult, request);
+
+      return requiredAttendeeTimeRangeResult.toList();
+  }
+
+  /**
+  *  Returns the stretches of the day when at least one of the attendees is outside the
+  *  availability the request gives them, merged and sorted by start time. They are read from
+  *  the request's compiled availability, so no events are made up for the attendees.
+  *  @param request The request with the attendees' availability.
+  *  @param attendees The attendees to look at.
+  *  @return The times when one of the attendees can't meet.
+  */
+  private List<TimeRange> getUnavailableTimes(MeetingRequest request, AttendeeSet attendees){
+      BusyIntervals unavailable =
+          BusyIntervals.ofUnavailable(request, attendees, TimeRange.WHOLE_DAY);
+      List<TimeRange> unavailableTimes = new ArrayList<>(unavailable.size());
+      for(int i=0;i<unavailable.size();i++){
+          unavailableTimes.add(
+              TimeRange.fromStartEnd(unavailable.start(i), unavailable.end(i), false));
+      }
+      return unavailableTimes;
+  }
+
+  /**
+  *  Finds open meeting timeslots using a schedule of who is busy when, such as an
+  *  {@code EventIndex}, so that only the events of the requested attendees are looked at.
+  *  @param schedule The busy times of every attendee.
+  *  @param request The duration of requested meeting and people attending.
+  *  @return A list of open meeting timeslots.
+  */
+  public Collection<TimeRange> query(BusySchedule schedule, MeetingRequest request) {
+      return new SweepMeetingQuery().query(schedule, request);
+  }
+
+  /**
+  *  Finds open meeting timeslots anywhere in a window that may span many days, including
+  *  timeslots that run past midnight.
+  *  @param events Set of events that attendees have, that need to be avoided.
+  *  @param request The duration of requested meeting and people attending.
+  *  @param horizon The window to look for open timeslots in.
+  *  @return A list of open meeting timeslots.
+  */
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request,
+    TimeRange horizon) {
+      return new SweepMeetingQuery().query(events, request, horizon);
+  }
 
-      return optionalAttendeeTimeRangeResult.isEmpty() ? requiredAttendeeTimeRangeResult :
-        optionalAttendeeTimeRangeResult;
+  /**
+  *  Finds open meeting timeslots in a window, only looking at the events that overlap it.
+  *  @param events Tree of events that attendees have, that need to be avoided.
+  *  @param request The duration of requested meeting and people attending.
+  *  @param horizon The window to look for open timeslots in.
+  *  @return A list of open meeting timeslots.
+  */
+  public Collection<TimeRange> query(EventIntervalTree events, MeetingRequest request,
+    TimeRange horizon) {
+      return query(events.getOverlapping(horizon), request, horizon);
   }
 
-  private void sortAndRemoveEvents(List<Event> eventsList, Collection<String> attendees){
+  private void sortAndRemoveEvents(List<Event> eventsList, AttendeeSet attendees){
+    long started = System.nanoTime();
     sort(eventsList, new Comparator<Event>() {
         public int compare (Event e1, Event e2) {
             return TimeRange.ORDER_BY_START.compare(e1.getWhen(), e2.getWhen());
           }
         });
+    started = stats.record(QueryStats.Phase.SORT, started);
+    stats.count(QueryStats.Counter.EVENTS_SCANNED, eventsList.size());
     /** We want to remove any attendees not attending or events less-than/equal to 0. */
     eventsList.removeIf(e -> (
-        e.getWhen().duration() <= 0 || disjoint(e.getAttendees(), attendees)));
+        e.getWhen().duration() <= 0 || !e.getAttendees().intersects(attendees)));
+    stats.count(QueryStats.Counter.EVENTS_KEPT, eventsList.size());
+    stats.record(QueryStats.Phase.FILTER, started);
   }
 
-  private Collection<TimeRange> checkOptionalAttendees(Collection<Event> events, 
-    Collection<TimeRange> requiredAttendeeTimeRangeResult, MeetingRequest request){
+  /**
+  *  Keeps only the timeslots that none of the optional attendees are busy during, unless
+  *  that would leave no timeslots at all.
+  *  @param requiredAttendeeTimeRangeResult open timeslots of the required attendees, narrowed in place.
+  */
+  private void checkOptionalAttendees(Collection<Event> events, 
+    TimeRangeArray requiredAttendeeTimeRangeResult, MeetingRequest request){
     List<Event> eventsList = new ArrayList<>(events);
-    Collection<TimeRange> timeranges = new ArrayList<>(requiredAttendeeTimeRangeResult);
     sortAndRemoveEvents(eventsList, request.getOptionalAttendees());
-    for(Event event : eventsList){
-        for(TimeRange timerange : requiredAttendeeTimeRangeResult){
-            if(timerange.overlaps(event.getWhen())){
-                timeranges.remove(timerange);
-            }
+    long started = System.nanoTime();
+    List<TimeRange> unavailableTimes =
+        getUnavailableTimes(request, request.getOptionalAttendees());
+    long[] optionalBusy = new long[eventsList.size() + unavailableTimes.size()];
+    for(int i=0;i<eventsList.size();i++){
+        optionalBusy[i] = PackedTimeRange.of(eventsList.get(i).getWhen());
+    }
+    for(int i=0;i<unavailableTimes.size();i++){
+        optionalBusy[eventsList.size() + i] = PackedTimeRange.of(unavailableTimes.get(i));
+    }
+    int kept = 0;
+    for(int i=0;i<requiredAttendeeTimeRangeResult.size();i++){
+        long timerange = requiredAttendeeTimeRangeResult.get(i);
+        if(!overlapsAny(timerange, optionalBusy)){
+            requiredAttendeeTimeRangeResult.set(kept++, timerange);
         }
     }
-    return timeranges;
+    if(kept > 0){
+        requiredAttendeeTimeRangeResult.truncate(kept);
+    }
+    stats.record(QueryStats.Phase.OPTIONAL_ATTENDEES, started);
+  }
+
+  private boolean overlapsAny(long timerange, long[] busy){
+    for(long busyRange : busy){
+        if(PackedTimeRange.overlaps(timerange, busyRange)){
+            return true;
+        }
+    }
+    return false;
   }
 
   /**
-  *  This method gets the open time slots by looping through a list of events
-  *  given that the list is sorted by start time. 
-  *  @param eventsList list of events in sorted order (by start time).
+  *  This method gets the open time slots by looping through the attendees' busy times,
+  *  sorted by start time, including the times they are outside their availability.
+  *  @param events Set of events that attendees have, that need to be avoided.
   *  @param request he duration of requested meeting and people attending.
   *  @return A list of open meeting timeslots. 
   */
-  private Collection<TimeRange> getOpenTimeSlots(Collection<Event> events, MeetingRequest request, Collection<String> attendees){
+  private TimeRangeArray getOpenTimeSlots(Collection<Event> events, MeetingRequest request, AttendeeSet attendees){
       List<Event> eventsList = new ArrayList<>(events);
-      Collection<TimeRange> openTimeSlots = new ArrayList<>();
       sortAndRemoveEvents(eventsList, attendees);
-      if(eventsList.isEmpty()){
-          return asList(TimeRange.WHOLE_DAY);
+      long started = System.nanoTime();
+      List<TimeRange> busyTimes = new ArrayList<>(eventsList.size());
+      for(Event event : eventsList){
+          busyTimes.add(event.getWhen());
+      }
+      List<TimeRange> unavailableTimes = getUnavailableTimes(request, attendees);
+      if(!unavailableTimes.isEmpty()){
+          busyTimes.addAll(unavailableTimes);
+          sort(busyTimes, TimeRange.ORDER_BY_START);
+      }
+      TimeRangeArray openTimeSlots = new TimeRangeArray(busyTimes.size() + 1);
+      if(busyTimes.isEmpty()){
+          openTimeSlots.add(PackedTimeRange.of(TimeRange.WHOLE_DAY));
+          recordGaps(openTimeSlots, started);
+          return openTimeSlots;
        }
-      Optional<TimeRange> optionalTimeRange;
       // First event in the list, check if there is enough time between event start and the start of the day. 
       //  If there is enough time, add to the result. Since the events are sorted by start time we can check the
       //  first index.
-      optionalTimeRange = getTimeSlotWhenPossible(TimeRange.START_OF_DAY, eventsList.get(0).getWhen().start(), request.getDuration(), false);
-      optionalTimeRange.ifPresent(range -> openTimeSlots.add(range));
+      addTimeSlotWhenPossible(openTimeSlots, TimeRange.START_OF_DAY, busyTimes.get(0).start(), request.getDuration(), false);
       
-      for(int i=0;i<eventsList.size();i++){
-        TimeRange eventTime = eventsList.get(i).getWhen();
+      for(int i=0;i<busyTimes.size();i++){
+        TimeRange eventTime = busyTimes.get(i);
         int eventEnd = eventTime.end();
 
         // If this isn't the last event.
-        if(i != eventsList.size()-1){
-          TimeRange nextEvent = eventsList.get(i+1).getWhen();
+        if(i != busyTimes.size()-1){
+          TimeRange nextEvent = busyTimes.get(i+1);
           // Check for overlap.  Don't need to check for the reverse, since it is pre-sorted. 
           if(eventTime.overlaps(nextEvent) && eventTime.contains(nextEvent)){
             //  If one event contains another event. Set i+1 to i.  
             // This is to get the earliest start and latest end time for an event.
-            eventsList.set(i+1, eventsList.get(i));
+            busyTimes.set(i+1, busyTimes.get(i));
             //  Check if there is enough time between two events. 
           } else {
-             optionalTimeRange = getTimeSlotWhenPossible(eventEnd, nextEvent.start(), 
+             addTimeSlotWhenPossible(openTimeSlots, eventEnd, nextEvent.start(), 
                request.getDuration(), false);
-             optionalTimeRange.ifPresent(range -> openTimeSlots.add(range));
            } 
          // For last element in event list check if there is enough time between event end and end of day 
        } else {
-          optionalTimeRange = getTimeSlotWhenPossible(eventEnd,TimeRange.END_OF_DAY, 
+          addTimeSlotWhenPossible(openTimeSlots, eventEnd,TimeRange.END_OF_DAY, 
             request.getDuration(), true);
-          optionalTimeRange.ifPresent(range -> openTimeSlots.add(range));
        }
       }
+      recordGaps(openTimeSlots, started);
       return openTimeSlots;
   }
 
-  private Optional<TimeRange> getTimeSlotWhenPossible(int start, int end, long duration, boolean inclusive){
+  private void recordGaps(TimeRangeArray openTimeSlots, long started){
+      stats.count(QueryStats.Counter.GAPS_FOUND, openTimeSlots.size());
+      stats.record(QueryStats.Phase.FIND_GAPS, started);
+  }
+
+  private void addTimeSlotWhenPossible(TimeRangeArray openTimeSlots, int start, int end, long duration, boolean inclusive){
       if(end-start >= duration){
-          return Optional.of(TimeRange.fromStartEnd(start, end, inclusive));
+          openTimeSlots.add(start, inclusive ? end + 1 : end);
       }
-      return Optional.empty();
   }
 }
@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * Compact encodings of when someone is busy within a window, for clients that only need to draw
+ * busy bars and not the events behind them. Both are built straight from merged {@link
+ * BusyIntervals}, and intervals that only touch are joined.
+ *
+ * <p>{@link #runLengths} gives the lengths of alternating free and busy runs, starting with a free
+ * run (which is zero when the window starts busy). The final free run is left out, so a free
+ * window is an empty array. {@link #bitmap} gives one bit per minute of the window, lowest bit of
+ * each byte first, where a set bit means busy.
+ */
+public final class FreeBusyEncoding {
+  private FreeBusyEncoding() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the lengths, in minutes, of the alternating free and busy runs in {@code window}.
+   */
+  public static int[] runLengths(BusyIntervals busy, TimeRange window) {
+    int end = window.end();
+    int[] runs = new int[8];
+    int count = 0;
+    int cursor = window.start();
+    for (int i = busy.firstEndingAfter(window.start()); i < busy.size(); i++) {
+      int busyStart = Math.max(busy.start(i), window.start());
+      if (busyStart >= end) {
+        break;
+      }
+      int busyEnd = Math.min(busy.end(i), end);
+      if (count + 2 > runs.length) {
+        runs = Arrays.copyOf(runs, runs.length * 2);
+      }
+      if (count > 0 && busyStart <= cursor) {
+        // Touches the previous busy run, so extend it.
+        runs[count - 1] += busyEnd - cursor;
+      } else {
+        runs[count++] = busyStart - cursor;
+        runs[count++] = busyEnd - busyStart;
+      }
+      cursor = busyEnd;
+    }
+    return Arrays.copyOf(runs, count);
+  }
+
+  /**
+   * Returns one bit per minute of {@code window}, set where the minute is busy.
+   */
+  public static byte[] bitmap(BusyIntervals busy, TimeRange window) {
+    byte[] bits = new byte[(window.duration() + Byte.SIZE - 1) / Byte.SIZE];
+    int end = window.end();
+    for (int i = busy.firstEndingAfter(window.start()); i < busy.size(); i++) {
+      int busyStart = Math.max(busy.start(i), window.start());
+      if (busyStart >= end) {
+        break;
+      }
+      setBits(bits, busyStart - window.start(), Math.min(busy.end(i), end) - window.start());
+    }
+    return bits;
+  }
+
+  /** Sets the bits in {@code [from, to)}, filling whole bytes at a time where it can. */
+  private static void setBits(byte[] bits, int from, int to) {
+    while (from < to && (from & 7) != 0) {
+      bits[from >>> 3] |= 1 << (from & 7);
+      from++;
+    }
+    int wholeBytesEnd = from + ((to - from) & ~7);
+    Arrays.fill(bits, from >>> 3, wholeBytesEnd >>> 3, (byte) -1);
+    for (from = wholeBytesEnd; from < to; from++) {
+      bits[from >>> 3] |= 1 << (from & 7);
+    }
+  }
+}
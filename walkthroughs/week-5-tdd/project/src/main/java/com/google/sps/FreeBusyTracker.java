@@ -0,0 +1,318 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * FreeBusyTracker keeps each attendee's merged busy times up to date as events are added, removed,
+ * and moved, so that queries never have to sort the whole calendar again. Adding an event costs
+ * {@code O(log n)} per attendee of the event, where {@code n} is the number of events that
+ * attendee has, plus the busy intervals it joins together. Removing one also goes over the events
+ * in the busy interval it leaves, since that interval may split apart. Queries read the merged
+ * intervals as they are and only merge the attendees' sorted intervals with each other.
+ *
+ * <p>Instances are thread-safe. A tracker created from an {@link EventStore} follows the store's
+ * changes as they are made.
+ */
+public final class FreeBusyTracker implements BusySchedule {
+  // How many events start and end at one point in time for one attendee.
+  private static final class Boundary {
+    int starts;
+    int ends;
+
+    boolean isEmpty() {
+      return starts == 0 && ends == 0;
+    }
+  }
+
+  // For each attendee, the points in time where one of their events starts or ends. These are
+  // what a busy interval is split up again from when an event in it is removed.
+  private final Map<String, TreeMap<Integer, Boundary>> boundaries = new HashMap<>();
+
+  // For each attendee, the start and end of each of their merged busy intervals.
+  private final Map<String, TreeMap<Integer, Integer>> intervals = new HashMap<>();
+
+  // Each attendee's merged busy intervals as handed to queries, built the first time they are
+  // asked for after a change.
+  private final Map<String, BusyIntervals> busy = new HashMap<>();
+
+  // How many copies of each event are being tracked, so that removing one leaves the others.
+  private final Map<Event, Integer> events = new HashMap<>();
+
+  // Events that a store reported removed before it reported them added, which can happen when
+  // two threads change the store at once. Each one cancels out the next time it is added.
+  private final Map<Event, Integer> removedEarly = new HashMap<>();
+
+  private int size;
+
+  /**
+   * Creates a tracker with no events.
+   */
+  public FreeBusyTracker() {}
+
+  /**
+   * Creates a tracker that starts out with {@code events}.
+   *
+   * @param events The events that attendees are busy with. Must be non-null.
+   */
+  public FreeBusyTracker(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    for (Event event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * Creates a tracker that starts out with the events in {@code store} and is kept up to date as
+   * they are added and removed. A change made while the tracker is being created may be counted
+   * twice, so create it before other threads start changing the store.
+   *
+   * @param store The events that attendees are busy with. Must be non-null.
+   */
+  public FreeBusyTracker(EventStore store) {
+    if (store == null) {
+      throw new IllegalArgumentException("store cannot be null");
+    }
+
+    synchronized (this) {
+      store.addListener(this::addedToStore, this::removedFromStore);
+      for (Event event : store.snapshot().getEvents()) {
+        add(event);
+      }
+    }
+  }
+
+  /**
+   * Adds an event, making its attendees busy for its duration.
+   */
+  public synchronized void add(Event event) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    events.merge(event, 1, Integer::sum);
+    size++;
+    TimeRange when = event.getWhen();
+    // An event with no duration never makes anyone busy.
+    if (when.duration() <= 0) {
+      return;
+    }
+    for (String attendee : event.getAttendees()) {
+      TreeMap<Integer, Boundary> points =
+          boundaries.computeIfAbsent(attendee, key -> new TreeMap<>());
+      points.computeIfAbsent(when.start(), key -> new Boundary()).starts++;
+      points.computeIfAbsent(when.end(), key -> new Boundary()).ends++;
+      join(intervals.computeIfAbsent(attendee, key -> new TreeMap<>()), when);
+      busy.remove(attendee);
+    }
+  }
+
+  /**
+   * Removes one copy of {@code event}. Returns {@code false} if the event was never added.
+   */
+  public synchronized boolean remove(Event event) {
+    Integer count = events.get(event);
+    if (count == null) {
+      return false;
+    }
+
+    if (count == 1) {
+      events.remove(event);
+    } else {
+      events.put(event, count - 1);
+    }
+    size--;
+    TimeRange when = event.getWhen();
+    if (when.duration() <= 0) {
+      return true;
+    }
+    for (String attendee : event.getAttendees()) {
+      TreeMap<Integer, Boundary> points = boundaries.get(attendee);
+      points.get(when.start()).starts--;
+      points.get(when.end()).ends--;
+      removeIfEmpty(points, when.start());
+      removeIfEmpty(points, when.end());
+      if (points.isEmpty()) {
+        boundaries.remove(attendee);
+        intervals.remove(attendee);
+      } else {
+        split(points, intervals.get(attendee), when);
+      }
+      busy.remove(attendee);
+    }
+    return true;
+  }
+
+  /**
+   * Moves {@code event} to a new time, keeping its title and attendees. Returns the moved event,
+   * or {@code null} if {@code event} was never added.
+   */
+  public synchronized Event move(Event event, TimeRange when) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (!remove(event)) {
+      return null;
+    }
+
+    Event moved = new Event(event.getTitle(), when, event.getAttendees());
+    add(moved);
+    return moved;
+  }
+
+  /**
+   * Returns the number of events being tracked.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized BusyIntervals getBusyIntervals(Collection<String> attendees) {
+    List<BusyIntervals> merged = new ArrayList<>(attendees.size());
+    for (String attendee : attendees) {
+      BusyIntervals attendeeBusy = getBusyIntervals(attendee);
+      if (!attendeeBusy.isEmpty()) {
+        merged.add(attendeeBusy);
+      }
+    }
+    if (merged.isEmpty()) {
+      return BusyIntervals.EMPTY;
+    }
+
+    // Merge in pairs, so that each interval is copied once per halving rather than once per
+    // attendee.
+    while (merged.size() > 1) {
+      List<BusyIntervals> next = new ArrayList<>((merged.size() + 1) / 2);
+      for (int i = 0; i < merged.size(); i += 2) {
+        next.add(i + 1 < merged.size()
+            ? BusyIntervals.merge(merged.get(i), merged.get(i + 1)) : merged.get(i));
+      }
+      merged = next;
+    }
+    return merged.get(0);
+  }
+
+  // Returns one attendee's merged busy intervals, already sorted.
+  private BusyIntervals getBusyIntervals(String attendee) {
+    BusyIntervals attendeeBusy = busy.get(attendee);
+    if (attendeeBusy == null) {
+      TreeMap<Integer, Integer> attendeeIntervals = intervals.get(attendee);
+      if (attendeeIntervals == null) {
+        return BusyIntervals.EMPTY;
+      }
+      int[] starts = new int[attendeeIntervals.size()];
+      int[] ends = new int[attendeeIntervals.size()];
+      int count = 0;
+      for (Map.Entry<Integer, Integer> interval : attendeeIntervals.entrySet()) {
+        starts[count] = interval.getKey();
+        ends[count++] = interval.getValue();
+      }
+      attendeeBusy = BusyIntervals.ofMerged(starts, ends, count);
+      busy.put(attendee, attendeeBusy);
+    }
+    return attendeeBusy;
+  }
+
+  /**
+   * Adds {@code when} to merged busy intervals, joining it with the intervals it overlaps. Like
+   * {@link BusyIntervals}, intervals that only touch stay apart.
+   */
+  private static void join(TreeMap<Integer, Integer> merged, TimeRange when) {
+    int start = when.start();
+    int end = when.end();
+    Map.Entry<Integer, Integer> before = merged.floorEntry(start);
+    if (before != null && before.getValue() > start) {
+      start = before.getKey();
+      end = Math.max(end, before.getValue());
+      merged.remove(start);
+    }
+    Map.Entry<Integer, Integer> after = merged.ceilingEntry(start);
+    while (after != null && after.getKey() < end) {
+      end = Math.max(end, after.getValue());
+      merged.remove(after.getKey());
+      after = merged.ceilingEntry(start);
+    }
+    merged.put(start, end);
+  }
+
+  /**
+   * Splits the merged busy interval that {@code when} was removed from back into the intervals
+   * that the remaining events in it make, by going over their {@code points}.
+   */
+  private static void split(
+      TreeMap<Integer, Boundary> points, TreeMap<Integer, Integer> merged, TimeRange when) {
+    Map.Entry<Integer, Integer> containing = merged.floorEntry(when.start());
+    int from = containing.getKey();
+    int to = containing.getValue();
+    merged.remove(from);
+
+    // Events that end at the first point belong to the interval before, and events that start at
+    // the last point belong to the one after.
+    int depth = 0;
+    int start = from;
+    for (Map.Entry<Integer, Boundary> entry : points.subMap(from, true, to, true).entrySet()) {
+      int point = entry.getKey();
+      Boundary boundary = entry.getValue();
+      // Close before opening, so that events that only touch stay apart like in BusyIntervals.
+      if (point != from) {
+        depth -= boundary.ends;
+        if (depth == 0 && boundary.ends > 0) {
+          merged.put(start, point);
+        }
+      }
+      if (point != to) {
+        if (depth == 0 && boundary.starts > 0) {
+          start = point;
+        }
+        depth += boundary.starts;
+      }
+    }
+  }
+
+  private synchronized void addedToStore(Event event) {
+    Integer count = removedEarly.get(event);
+    if (count == null) {
+      add(event);
+    } else if (count == 1) {
+      removedEarly.remove(event);
+    } else {
+      removedEarly.put(event, count - 1);
+    }
+  }
+
+  private synchronized void removedFromStore(Event event) {
+    if (!remove(event)) {
+      removedEarly.merge(event, 1, Integer::sum);
+    }
+  }
+
+  private static void removeIfEmpty(TreeMap<Integer, Boundary> points, int point) {
+    Boundary boundary = points.get(point);
+    if (boundary != null && boundary.isEmpty()) {
+      points.remove(point);
+    }
+  }
+}
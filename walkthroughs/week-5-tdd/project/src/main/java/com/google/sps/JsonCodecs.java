@@ -0,0 +1,43 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * The {@link Gson} instance that the servlets share. It reads and writes {@link TimeRange}, {@link
+ * Event} and {@link MeetingRequest} with their hand-written {@code GsonAdapter}s, which stream
+ * straight from the JSON instead of going through reflection. Gson is thread-safe, so one instance
+ * serves every request.
+ */
+public final class JsonCodecs {
+  private static final Gson GSON = new GsonBuilder()
+      .registerTypeAdapter(TimeRange.class, new TimeRange.GsonAdapter())
+      .registerTypeAdapter(Event.class, new Event.GsonAdapter())
+      .registerTypeAdapter(MeetingRequest.class, new MeetingRequest.GsonAdapter())
+      .create();
+
+  private JsonCodecs() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the shared instance.
+   */
+  public static Gson getGson() {
+    return GSON;
+  }
+}
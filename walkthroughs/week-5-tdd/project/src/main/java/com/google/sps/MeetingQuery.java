@@ -0,0 +1,33 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * A strategy for finding the times during the day when a meeting could take place. Every
+ * implementation must return the same ranges for the same inputs so that callers can pick whichever
+ * engine best fits the size of their calendar.
+ */
+public interface MeetingQuery {
+  /**
+   * Returns the open time ranges for {@code request}, in ascending order of start time.
+   *
+   * @param events The events that attendees are already busy with. Must be non-null.
+   * @param request The duration of the requested meeting and the people attending. Must be
+   *     non-null.
+   */
+  Collection<TimeRange> query(Collection<Event> events, MeetingRequest request);
+}
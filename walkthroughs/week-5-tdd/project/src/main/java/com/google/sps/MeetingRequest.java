@@ -14,39 +14,86 @@
 
 package com.google.sps;
 
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class MeetingRequest {
   // All the people that should be attending this new meeting. Use a set to avoid duplicates.
-  private final Collection<String> attendees = new HashSet<>();
+  @JsonAdapter(AttendeeSet.GsonAdapter.class)
+  private final AttendeeSet attendees;
 
   // Some optional attendees for this new meeting. Use a set to avoid duplicates.
-  private final Collection<String> optional_attendees = new HashSet<>();
+  @JsonAdapter(AttendeeSet.GsonAdapter.class)
+  private AttendeeSet optional_attendees = AttendeeSet.EMPTY;
 
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // How important this meeting is when several requests compete for the same time, as in {@link
+  // MeetingPlanner}. Higher priorities are placed first.
+  private int priority;
+
+  // How many of the required attendees have to be free for a time to work, or zero if all of them
+  // do. See {@link QuorumMeetingQuery}.
+  private int quorum;
+
+  // The times of day when some attendees can meet, such as their working hours. The same windows
+  // apply to every day. Attendees who aren't in the map can meet at any time.
+  private Map<String, List<TimeRange>> availability = new LinkedHashMap<>();
+
+  // Each attendee's availability compiled into the minutes of the day when they can't meet, built
+  // the first time a query asks for it.
+  private final transient Map<String, MinuteBitmap> unavailableMinutes = new ConcurrentHashMap<>();
+
+  // Gson uses this constructor when it reads a request, so that fields missing from the JSON are
+  // left as empty collections instead of null.
+  private MeetingRequest() {
+    this(Collections.emptySet(), 0);
+  }
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
-    this.attendees.addAll(attendees);
+    this.attendees = AttendeeSet.resolve(attendees);
   }
 
   /**
-   * Returns a read-only copy of the people who are required to attend this meeting.
+   * Returns a read-only set of the people who are required to attend this meeting.
    */
-  public Collection<String> getAttendees() {
-    return Collections.unmodifiableCollection(attendees);
+  public AttendeeSet getAttendees() {
+    return attendees;
   }
 
   /**
-   * Returns a read-only copy of the people who are optional to attend this meeting.
+   * Returns a read-only set of the people who are optional to attend this meeting.
    */
-  public Collection<String> getOptionalAttendees() {
-    return Collections.unmodifiableCollection(optional_attendees);
+  public AttendeeSet getOptionalAttendees() {
+    return optional_attendees;
+  }
+
+  /**
+   * Replaces the optional attendees with {@code optionalAttendees}, leaving out anyone who is
+   * already required, in one step rather than one attendee at a time.
+   */
+  void setOptionalAttendees(Collection<String> optionalAttendees) {
+    List<String> kept = new ArrayList<>(optionalAttendees.size());
+    for (String attendee : optionalAttendees) {
+      if (!attendees.contains(attendee)) {
+        kept.add(attendee);
+      }
+    }
+    optional_attendees = AttendeeSet.resolve(kept);
   }
 
   /**
@@ -54,8 +101,119 @@ public final class MeetingRequest {
    */
   public void addOptionalAttendee(String attendee) {
     if (!attendees.contains(attendee)) {
-      optional_attendees.add(attendee);
+      optional_attendees = optional_attendees.with(attendee);
+    }
+  }
+
+  /**
+   * Limits the times when {@code attendee} can meet to {@code windows}, which are times of day that
+   * apply to every day. Parts of a window outside the day are ignored, and an empty collection
+   * means the attendee can't meet at all. The attendee is treated as busy outside the windows.
+   */
+  public void setAvailability(String attendee, Collection<TimeRange> windows) {
+    if (attendee == null) {
+      throw new IllegalArgumentException("attendee cannot be null");
+    }
+    if (windows == null) {
+      throw new IllegalArgumentException("windows cannot be null");
     }
+
+    if (availability == null) {
+      availability = new LinkedHashMap<>();
+    }
+    availability.put(attendee, Collections.unmodifiableList(new ArrayList<>(windows)));
+    unavailableMinutes.remove(attendee);
+  }
+
+  /**
+   * Returns a read-only map from each attendee whose availability is limited to the times of day
+   * when they can meet.
+   */
+  public Map<String, List<TimeRange>> getAvailability() {
+    return availability == null
+        ? Collections.emptyMap()
+        : Collections.unmodifiableMap(availability);
+  }
+
+  /**
+   * Returns the minutes of the day when {@code attendee} can't meet, or {@code null} if their
+   * availability isn't limited. The bitmap is shared and must not be changed.
+   */
+  MinuteBitmap getUnavailableMinutes(String attendee) {
+    List<TimeRange> windows = availability == null ? null : availability.get(attendee);
+    if (windows == null) {
+      return null;
+    }
+    return unavailableMinutes.computeIfAbsent(attendee, unused -> {
+      MinuteBitmap available = new MinuteBitmap();
+      for (TimeRange window : windows) {
+        available.setBusy(window.start(), window.end());
+      }
+      return available.invert();
+    });
+  }
+
+  /**
+   * Returns the minutes of the day when at least one of {@code attendees} can't meet, or {@code
+   * null} if none of them has limited availability.
+   */
+  MinuteBitmap getUnavailableMinutes(Collection<String> attendees) {
+    if (availability == null || availability.isEmpty()) {
+      return null;
+    }
+
+    MinuteBitmap unavailable = null;
+    for (String attendee : attendees) {
+      MinuteBitmap minutes = getUnavailableMinutes(attendee);
+      if (minutes != null) {
+        if (unavailable == null) {
+          unavailable = new MinuteBitmap();
+        }
+        unavailable.or(minutes);
+      }
+    }
+    return unavailable;
+  }
+
+  /**
+   * Returns how important this meeting is compared to others placed with it. Defaults to zero.
+   */
+  public int getPriority() {
+    return priority;
+  }
+
+  /**
+   * Sets how important this meeting is compared to others placed with it. Higher goes first.
+   */
+  public void setPriority(int priority) {
+    this.priority = priority;
+  }
+
+  /**
+   * Returns how many of the required attendees have to be free for a time to work, or zero if all
+   * of them do.
+   */
+  public int getQuorum() {
+    return quorum;
+  }
+
+  /**
+   * Lets the meeting go ahead when only {@code quorum} of the required attendees can make it, as
+   * for an all-hands where nobody expects everyone to be free. Zero means all of them.
+   */
+  public void setQuorum(int quorum) {
+    if (quorum < 0) {
+      throw new IllegalArgumentException("quorum cannot be negative");
+    }
+    this.quorum = quorum;
+  }
+
+  /**
+   * Returns whether only some of the required attendees have to be free, because the quorum is
+   * set and smaller than the number of required attendees.
+   */
+  boolean hasPartialQuorum() {
+    return quorum > 0 && quorum < attendees.size();
   }
 
   /**
@@ -64,4 +222,119 @@ public final class MeetingRequest {
   public long getDuration() {
     return duration;
   }
+
+  /**
+   * Reads and writes a {@code MeetingRequest} straight from the JSON stream, with the same field
+   * names that reflection uses. Optional attendees are added in one step instead of one at a time.
+   */
+  public static final class GsonAdapter extends TypeAdapter<MeetingRequest> {
+    private final TimeRange.GsonAdapter timeRangeAdapter = new TimeRange.GsonAdapter();
+    private final AttendeeSet.GsonAdapter attendeesAdapter = new AttendeeSet.GsonAdapter();
+
+    @Override
+    public void write(JsonWriter out, MeetingRequest request) throws IOException {
+      if (request == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("attendees");
+      attendeesAdapter.write(out, request.attendees);
+      out.name("optional_attendees");
+      attendeesAdapter.write(out, request.optional_attendees);
+      out.name("duration").value(request.duration);
+      out.name("priority").value(request.priority);
+      out.name("quorum").value(request.quorum);
+      out.name("availability");
+      out.beginObject();
+      for (Map.Entry<String, List<TimeRange>> entry : request.getAvailability().entrySet()) {
+        out.name(entry.getKey());
+        out.beginArray();
+        for (TimeRange window : entry.getValue()) {
+          timeRangeAdapter.write(out, window);
+        }
+        out.endArray();
+      }
+      out.endObject();
+      out.endObject();
+    }
+
+    @Override
+    public MeetingRequest read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      AttendeeSet attendees = AttendeeSet.EMPTY;
+      AttendeeSet optionalAttendees = AttendeeSet.EMPTY;
+      long duration = 0;
+      int priority = 0;
+      int quorum = 0;
+      Map<String, List<TimeRange>> availability = Collections.emptyMap();
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "attendees":
+            attendees = attendeesAdapter.read(in);
+            break;
+          case "optional_attendees":
+            optionalAttendees = attendeesAdapter.read(in);
+            break;
+          case "duration":
+            duration = in.nextLong();
+            break;
+          case "priority":
+            priority = in.nextInt();
+            break;
+          case "quorum":
+            quorum = in.nextInt();
+            break;
+          case "availability":
+            availability = readAvailability(in);
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+
+      MeetingRequest request = new MeetingRequest(attendees, duration);
+      request.setOptionalAttendees(optionalAttendees);
+      request.setPriority(priority);
+      try {
+        request.setQuorum(quorum);
+        for (Map.Entry<String, List<TimeRange>> entry : availability.entrySet()) {
+          request.setAvailability(entry.getKey(), entry.getValue());
+        }
+      } catch (IllegalArgumentException e) {
+        throw new JsonParseException(e.getMessage(), e);
+      }
+      return request;
+    }
+
+    private Map<String, List<TimeRange>> readAvailability(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return Collections.emptyMap();
+      }
+      Map<String, List<TimeRange>> availability = new LinkedHashMap<>();
+      in.beginObject();
+      while (in.hasNext()) {
+        String attendee = in.nextName();
+        List<TimeRange> windows = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+          TimeRange window = timeRangeAdapter.read(in);
+          if (window == null) {
+            throw new JsonParseException("availability windows cannot be null");
+          }
+          windows.add(window);
+        }
+        in.endArray();
+        availability.put(attendee, windows);
+      }
+      in.endObject();
+      return availability;
+    }
+  }
 }
@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * The minutes of a single day, one bit per minute, where a set bit means someone is busy during
+ * that minute. A whole day fits in 23 {@code long}s, so combining the calendars of many people is a
+ * handful of ORs and finding free time is a handful of bit scans.
+ */
+public final class MinuteBitmap {
+  /** The number of minutes, and so the number of bits, in a day. */
+  public static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+
+  private static final int WORDS = (MINUTES + Long.SIZE - 1) / Long.SIZE;
+
+  private final long[] words = new long[WORDS];
+
+  /**
+   * Marks every minute in {@code [start, end)} as busy. Minutes outside the day are ignored.
+   */
+  public void setBusy(int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, MINUTES);
+    if (start >= end) {
+      return;
+    }
+
+    int firstWord = start >>> 6;
+    int lastWord = (end - 1) >>> 6;
+    // Shifts only use the low six bits, so these masks cover [start, 64) and [0, end) of a word.
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+    if (firstWord == lastWord) {
+      words[firstWord] |= firstMask & lastMask;
+      return;
+    }
+
+    words[firstWord] |= firstMask;
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      words[i] = -1L;
+    }
+    words[lastWord] |= lastMask;
+  }
+
+  /**
+   * Marks every minute that is busy in {@code other} as busy in this bitmap too.
+   */
+  public void or(MinuteBitmap other) {
+    for (int i = 0; i < WORDS; i++) {
+      words[i] |= other.words[i];
+    }
+  }
+
+  /**
+   * Returns a new bitmap where every minute of the day that is busy in this one is free, and every
+   * minute that is free is busy.
+   */
+  public MinuteBitmap invert() {
+    MinuteBitmap inverted = new MinuteBitmap();
+    for (int i = 0; i < WORDS; i++) {
+      inverted.words[i] = ~words[i];
+    }
+    // Keep the unused bits at the end of the last word clear, as nextFree relies on.
+    inverted.words[WORDS - 1] &= -1L >>> -MINUTES;
+    return inverted;
+  }
+
+  /**
+   * Returns {@code true} if {@code minute} is busy.
+   */
+  public boolean isBusy(int minute) {
+    return minute >= 0 && minute < MINUTES && (words[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * Returns {@code true} if any minute in {@code [start, end)} is busy.
+   */
+  public boolean isBusy(int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, MINUTES);
+    return start < end && nextBusy(start) < end;
+  }
+
+  /**
+   * Returns {@code true} if no minute of the day is busy.
+   */
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the first busy minute at or after {@code from}, or {@link #MINUTES} if there is none.
+   */
+  public int nextBusy(int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+
+    int index = from >>> 6;
+    long word = words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES;
+      }
+      word = words[index];
+    }
+    return Math.min(index * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+  }
+
+  /**
+   * Returns the first free minute at or after {@code from}, or {@link #MINUTES} if there is none.
+   */
+  public int nextFree(int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+
+    int index = from >>> 6;
+    long word = ~words[index] & (-1L << from);
+    while (word == 0) {
+      if (++index == WORDS) {
+        return MINUTES;
+      }
+      word = ~words[index];
+    }
+    // The unused bits at the end of the last word are never set, so this may land past the day.
+    return Math.min(index * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+  }
+}
@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the times when every required attendee and as many optional attendees as possible are
+ * free. Unlike {@link FindMeetingQuery}, one optional attendee who can't make any time doesn't
+ * cause every other optional attendee to be ignored.
+ *
+ * <p>Each optional attendee's busy times are turned into the range of meeting start times they
+ * conflict with, and a single counting sweep over those ranges finds the start times with the
+ * fewest conflicts. The cost grows with the number of events the optional attendees have, not with
+ * the number of ways to pick a subset of them.
+ *
+ * <p>Meetings must fit within the day, and meetings shorter than a minute are treated as one
+ * minute long.
+ */
+public final class MostOptionalAttendeesQuery {
+  /**
+   * Returns the time ranges where the meeting fits around the required attendees and the largest
+   * number of optional attendees can come, in ascending order of start time. Every start time in
+   * a returned range, together with the meeting's duration, has the same number of optional
+   * attendees free.
+   *
+   * @param events The events that attendees are already busy with. Must be non-null.
+   * @param request The duration of the requested meeting and the people attending. Must be
+   *     non-null.
+   */
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    return query(new EventIndex(events), request);
+  }
+
+  /**
+   * Like {@link #query(Collection, MeetingRequest)}, but only looks at the events of the people in
+   * the request.
+   */
+  public Collection<TimeRange> query(EventIndex index, MeetingRequest request) {
+    int dayLength = TimeRange.WHOLE_DAY.duration();
+    if (request.getDuration() > dayLength) {
+      return Collections.emptyList();
+    }
+    int duration = (int) Math.max(request.getDuration(), 1);
+
+    // The meeting can start anywhere in [gapStarts[i], lastStarts[i]] without running into a
+    // required attendee or off the end of the day.
+    BusyIntervals busy = index.getBusyIntervals(request.getAttendees());
+    if (!request.getAvailability().isEmpty()) {
+      busy = BusyIntervals.merge(busy,
+          BusyIntervals.ofUnavailable(request, request.getAttendees(), TimeRange.WHOLE_DAY));
+    }
+    int[] gapStarts = new int[busy.size() + 1];
+    int[] lastStarts = new int[busy.size() + 1];
+    int gaps = 0;
+    int free = TimeRange.START_OF_DAY;
+    for (int i = 0; i <= busy.size(); i++) {
+      int end = i < busy.size() ? Math.min(busy.start(i), dayLength) : dayLength;
+      if (end - free >= duration) {
+        gapStarts[gaps] = free;
+        lastStarts[gaps++] = end - duration;
+      }
+      if (i < busy.size()) {
+        free = Math.max(free, busy.end(i));
+      }
+    }
+
+    List<BusyIntervals> optionalBusy = new ArrayList<>();
+    for (String attendee : request.getOptionalAttendees()) {
+      optionalBusy.add(busyTimes(index, request, attendee));
+    }
+    long[] changes = BusyIntervals.conflictChanges(optionalBusy, duration);
+    return findFewestConflicts(gapStarts, lastStarts, gaps, changes, duration);
+  }
+
+  /**
+   * Returns the times {@code attendee} is busy or outside their availability.
+   */
+  private static BusyIntervals busyTimes(
+      EventIndex index, MeetingRequest request, String attendee) {
+    Collection<String> group = Collections.singleton(attendee);
+    BusyIntervals busy = index.getBusyIntervals(group);
+    if (request.getAvailability().isEmpty()) {
+      return busy;
+    }
+    return BusyIntervals.merge(
+        busy, BusyIntervals.ofUnavailable(request, group, TimeRange.WHOLE_DAY));
+  }
+
+  private static List<TimeRange> findFewestConflicts(
+      int[] gapStarts, int[] lastStarts, int gaps, long[] changes, int duration) {
+    // Runs of start times that share the fewest conflicts seen so far, as inclusive bounds.
+    int[] runFirsts = new int[gaps + changes.length];
+    int[] runLasts = new int[gaps + changes.length];
+    int runs = 0;
+    int fewest = Integer.MAX_VALUE;
+
+    int conflicts = 0;
+    int next = 0;
+    for (int gap = 0; gap < gaps; gap++) {
+      int first = gapStarts[gap];
+      while (next < changes.length && (changes[next] >> 1) <= first) {
+        conflicts += (changes[next++] & 1) == 1 ? 1 : -1;
+      }
+
+      while (first <= lastStarts[gap]) {
+        int changeAt = next < changes.length ? (int) (changes[next] >> 1) : Integer.MAX_VALUE;
+        int last = (int) Math.min((long) changeAt - 1, lastStarts[gap]);
+
+        if (conflicts < fewest) {
+          fewest = conflicts;
+          runs = 0;
+        }
+        if (conflicts == fewest) {
+          // Conflicts can change at a minute without the count changing, so join such runs.
+          if (runs > 0 && runLasts[runs - 1] == first - 1) {
+            runLasts[runs - 1] = last;
+          } else {
+            runFirsts[runs] = first;
+            runLasts[runs++] = last;
+          }
+        }
+
+        first = last + 1;
+        while (next < changes.length && (changes[next] >> 1) <= first) {
+          conflicts += (changes[next++] & 1) == 1 ? 1 : -1;
+        }
+      }
+    }
+
+    List<TimeRange> slots = new ArrayList<>(runs);
+    for (int i = 0; i < runs; i++) {
+      slots.add(TimeRange.fromStartEnd(runFirsts[i], runLasts[i] + duration, false));
+    }
+    return slots;
+  }
+}
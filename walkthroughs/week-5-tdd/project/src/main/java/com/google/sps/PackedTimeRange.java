@@ -0,0 +1,93 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Static operations on a {@link TimeRange} packed into a single {@code long}, with the start in the
+ * high 32 bits and the duration in the low 32 bits. Packed ranges behave exactly like the
+ * {@code TimeRange} they were made from, but can be stored in a {@code long[]} without allocating
+ * an object per range. Because the start is in the high bits, packed ranges sort by start.
+ */
+public final class PackedTimeRange {
+  private static final long LOW_BITS = 0xFFFFFFFFL;
+
+  private PackedTimeRange() {
+    // Disallow instances
+  }
+
+  /**
+   * Packs the range starting at {@code start} with a duration equal to {@code duration}.
+   */
+  public static long pack(int start, int duration) {
+    return ((long) start << 32) | (duration & LOW_BITS);
+  }
+
+  /**
+   * Packs the range from {@code start} to the exclusive {@code end}.
+   */
+  public static long fromStartEnd(int start, int end) {
+    return pack(start, end - start);
+  }
+
+  public static long of(TimeRange range) {
+    return pack(range.start(), range.duration());
+  }
+
+  public static TimeRange toTimeRange(long range) {
+    return TimeRange.fromStartDuration(start(range), duration(range));
+  }
+
+  public static int start(long range) {
+    return (int) (range >> 32);
+  }
+
+  public static int duration(long range) {
+    return (int) range;
+  }
+
+  /**
+   * Returns the closing exclusive bound of {@code range}.
+   */
+  public static int end(long range) {
+    return start(range) + duration(range);
+  }
+
+  /**
+   * Same as {@link TimeRange#overlaps(TimeRange)}.
+   */
+  public static boolean overlaps(long a, long b) {
+    return contains(a, start(b)) || contains(b, start(a));
+  }
+
+  /**
+   * Same as {@link TimeRange#contains(TimeRange)}.
+   */
+  public static boolean contains(long range, long other) {
+    if (duration(range) <= 0) {
+      return false;
+    }
+    if (duration(other) <= 0) {
+      return contains(range, start(other));
+    }
+    return contains(range, start(other)) && contains(range, end(other) - 1);
+  }
+
+  /**
+   * Same as {@link TimeRange#contains(int)}.
+   */
+  public static boolean contains(long range, int point) {
+    return duration(range) > 0 && point >= start(range) && point < end(range);
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@link BusySchedule} that merges the busy times of large groups of attendees in parallel. At
+ * or above {@code threshold} attendees, the attendees are split into chunks, each chunk's busy
+ * times are merged on a {@link ForkJoinPool}, and the sorted results are merged pairwise. Smaller
+ * groups go straight to the wrapped schedule. Either way the result is exactly what the wrapped
+ * schedule returns on its own.
+ *
+ * <p>The wrapped schedule is read from several threads at once, so it must not change while a
+ * query is running. {@link EventIndex}, {@link EventStore.Snapshot} and {@link EventFile} never
+ * change. Splitting only pays off when a call costs in proportion to the attendees asked about, as
+ * it does for all three.
+ */
+public final class ParallelBusySchedule implements BusySchedule {
+  /**
+   * Below this many attendees, splitting the work up costs more than it saves.
+   */
+  public static final int DEFAULT_THRESHOLD = 512;
+
+  // Give each worker a few chunks, so that one slow chunk doesn't hold up the rest.
+  private static final int CHUNKS_PER_WORKER = 4;
+
+  private final BusySchedule schedule;
+  private final ForkJoinPool pool;
+  private final int threshold;
+
+  public ParallelBusySchedule(BusySchedule schedule, ForkJoinPool pool) {
+    this(schedule, pool, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Creates a new parallel schedule.
+   *
+   * @param schedule The busy times of every attendee. Must be non-null.
+   * @param pool The pool to merge busy times on. Must be non-null.
+   * @param threshold The number of attendees at which to start merging in parallel. Must be
+   *     positive.
+   */
+  public ParallelBusySchedule(BusySchedule schedule, ForkJoinPool pool, int threshold) {
+    if (schedule == null) {
+      throw new IllegalArgumentException("schedule cannot be null");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+    if (threshold <= 0) {
+      throw new IllegalArgumentException("threshold must be positive");
+    }
+
+    this.schedule = schedule;
+    this.pool = pool;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public BusyIntervals getBusyIntervals(Collection<String> attendees) {
+    return getBusyIntervals(attendees, null);
+  }
+
+  @Override
+  public BusyIntervals getBusyIntervals(Collection<String> attendees, TimeRange window) {
+    if (attendees.size() < threshold) {
+      return busyIntervals(attendees, window);
+    }
+
+    String[] people = attendees.toArray(new String[0]);
+    int chunk = Math.max(1, people.length / (pool.getParallelism() * CHUNKS_PER_WORKER));
+    return pool.invoke(new MergeTask(people, 0, people.length, chunk, window));
+  }
+
+  /**
+   * Each attendee on their own is far below the threshold, so this goes straight to the wrapped
+   * schedule.
+   */
+  @Override
+  public List<BusyIntervals> getBusyIntervalsOfEach(
+      Collection<String> attendees, TimeRange window) {
+    return schedule.getBusyIntervalsOfEach(attendees, window);
+  }
+
+  // Asks the wrapped schedule, passing the window on if there is one.
+  private BusyIntervals busyIntervals(Collection<String> attendees, TimeRange window) {
+    return window == null
+        ? schedule.getBusyIntervals(attendees) : schedule.getBusyIntervals(attendees, window);
+  }
+
+  /** Merges the busy times of the attendees in {@code [from, to)}. */
+  private final class MergeTask extends RecursiveTask<BusyIntervals> {
+    private final String[] people;
+    private final int from;
+    private final int to;
+    private final int chunk;
+    private final TimeRange window;
+
+    MergeTask(String[] people, int from, int to, int chunk, TimeRange window) {
+      this.people = people;
+      this.from = from;
+      this.to = to;
+      this.chunk = chunk;
+      this.window = window;
+    }
+
+    @Override
+    protected BusyIntervals compute() {
+      if (to - from <= chunk) {
+        return busyIntervals(Arrays.asList(people).subList(from, to), window);
+      }
+
+      int middle = (from + to) >>> 1;
+      MergeTask left = new MergeTask(people, from, middle, chunk, window);
+      left.fork();
+      BusyIntervals right = new MergeTask(people, middle, to, chunk, window).compute();
+      return BusyIntervals.merge(left.join(), right);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where the time goes when answering meeting queries. Each phase of a query records how long it
+ * took into a {@link LatencyHistogram}, and a few counters track how much work the phases did.
+ * Nothing here takes a lock, so recording costs a couple of clock reads and atomic increments.
+ *
+ * <p>{@link FindMeetingQuery}, {@link SweepMeetingQuery}, the places that build {@link
+ * BusyIntervals} and the query servlet record into {@link #getDefault}.
+ */
+public final class QueryStats {
+  /** The parts of answering a query that are timed. */
+  public enum Phase {
+    /** Reading the request. */
+    PARSE,
+    /** Waiting in the queue for a worker thread. */
+    QUEUE,
+    /** Sorting events or busy times by start time. */
+    SORT,
+    /** Keeping only the events or busy times of the people being asked about. */
+    FILTER,
+    /** Finding the gaps between busy times that are long enough. */
+    FIND_GAPS,
+    /**
+     * Merging the optional attendees' busy times and narrowing the gaps down to the ones they can
+     * make.
+     */
+    OPTIONAL_ATTENDEES,
+    /** Answering the request, from the cache or otherwise. */
+    QUERY,
+    /** Writing the response. */
+    WRITE
+  }
+
+  /** The amounts of work that are counted. */
+  public enum Counter {
+    /** Requests answered. */
+    QUERIES,
+    /** Events looked at while filtering, or busy times read from an index. */
+    EVENTS_SCANNED,
+    /** Events or busy times kept after filtering. */
+    EVENTS_KEPT,
+    /** Gaps long enough for the meeting, before optional attendees are looked at. */
+    GAPS_FOUND,
+    /**
+     * Requests turned away because every worker was busy, either when they arrived and the queue
+     * was full or when their deadline passed while they were still waiting.
+     */
+    REJECTED,
+    /** Requests whose deadline passed, so they were answered with the slots found so far. */
+    PARTIAL_ANSWERS
+  }
+
+  private static final QueryStats DEFAULT = new QueryStats();
+
+  private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+  private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+
+  public QueryStats() {
+    // Both maps are filled here and never changed again, so reading them needs no lock.
+    for (Phase phase : Phase.values()) {
+      histograms.put(phase, new LatencyHistogram());
+    }
+    for (Counter counter : Counter.values()) {
+      counters.put(counter, new LongAdder());
+    }
+  }
+
+  /**
+   * Returns the stats that the query engines and servlets record into.
+   */
+  public static QueryStats getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Records that {@code phase} ran from {@code startNanos}, a reading of {@link System#nanoTime},
+   * until now. Returns the current time, so that the next phase can start from it.
+   */
+  public long record(Phase phase, long startNanos) {
+    long now = System.nanoTime();
+    histograms.get(phase).record(now - startNanos);
+    return now;
+  }
+
+  /**
+   * Adds {@code amount} to {@code counter}.
+   */
+  public void count(Counter counter, long amount) {
+    counters.get(counter).add(amount);
+  }
+
+  /**
+   * Returns the histogram of how long {@code phase} has taken.
+   */
+  public LatencyHistogram getHistogram(Phase phase) {
+    return histograms.get(phase);
+  }
+
+  /**
+   * Returns the total of {@code counter} so far.
+   */
+  public long getCount(Counter counter) {
+    return counters.get(counter).sum();
+  }
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the times when at least {@link MeetingRequest#getQuorum} of the required attendees are
+ * free, for meetings such as all-hands where there is rarely a time that works for everyone.
+ * Optional attendees are not looked at.
+ *
+ * <p>Each attendee's busy times are turned into the range of meeting start times they conflict
+ * with, and one counting sweep over where those ranges start and end finds the start times with
+ * few enough conflicts. The cost grows with the number of busy times the attendees have, never
+ * with the number of ways to pick {@code K} of {@code N} attendees, so it stays fast with
+ * thousands of attendees.
+ *
+ * <p>Meetings shorter than a minute are treated as one minute long. Each returned range covers a
+ * run of start times that all work, plus the meeting's duration after the last one.
+ */
+public final class QuorumMeetingQuery {
+  /**
+   * Returns the times within the day that work for a quorum of the request's attendees.
+   *
+   * @param events The events that attendees are already busy with. Must be non-null.
+   * @param request The duration of the requested meeting, the people attending and the quorum.
+   *     Must be non-null.
+   */
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    List<BusyIntervals> busyByAttendee = BusyIntervals.ofEach(events, request.getAttendees());
+    return findSlots(busyByAttendee, request, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Like {@link #query(Collection, MeetingRequest)}, but only looks at the busy times of the people
+   * in the request.
+   */
+  public Collection<TimeRange> query(BusySchedule schedule, MeetingRequest request) {
+    return query(schedule, request, TimeRange.WHOLE_DAY);
+  }
+
+  /**
+   * Like {@link #query(BusySchedule, MeetingRequest)}, but looks anywhere within {@code horizon},
+   * which may span many days.
+   */
+  public Collection<TimeRange> query(
+      BusySchedule schedule, MeetingRequest request, TimeRange horizon) {
+    if (horizon == null) {
+      throw new IllegalArgumentException("horizon cannot be null");
+    }
+
+    List<BusyIntervals> busyByAttendee =
+        new ArrayList<>(schedule.getBusyIntervalsOfEach(request.getAttendees(), horizon));
+    return findSlots(busyByAttendee, request, horizon);
+  }
+
+  /**
+   * Adds each attendee's unavailable times to their busy times in {@code busyByAttendee}, which
+   * is in the order of the request's attendees, and finds the slots that work for a quorum.
+   */
+  private static Collection<TimeRange> findSlots(
+      List<BusyIntervals> busyByAttendee, MeetingRequest request, TimeRange horizon) {
+    if (!request.getAvailability().isEmpty()) {
+      int next = 0;
+      for (String attendee : request.getAttendees()) {
+        BusyIntervals unavailable =
+            BusyIntervals.ofUnavailable(request, Collections.singleton(attendee), horizon);
+        busyByAttendee.set(next, BusyIntervals.merge(busyByAttendee.get(next), unavailable));
+        next++;
+      }
+    }
+    int quorum = request.getQuorum() == 0 ? busyByAttendee.size() : request.getQuorum();
+    return findQuorumSlots(busyByAttendee, quorum, request.getDuration(), horizon);
+  }
+
+  /**
+   * Returns the ranges of {@code window} where a meeting of {@code duration} minutes has at least
+   * {@code quorum} of the attendees in {@code busyByAttendee} free.
+   */
+  static List<TimeRange> findQuorumSlots(
+      List<BusyIntervals> busyByAttendee, int quorum, long duration, TimeRange window) {
+    if (duration > window.duration()) {
+      return Collections.emptyList();
+    }
+    if (busyByAttendee.isEmpty()) {
+      return Arrays.asList(window);
+    }
+    int length = (int) Math.max(duration, 1);
+    int allowedConflicts = busyByAttendee.size() - Math.min(quorum, busyByAttendee.size());
+    long[] changes = BusyIntervals.conflictChanges(busyByAttendee, length);
+
+    List<TimeRange> slots = new ArrayList<>();
+    int lastStart = window.end() - length;
+    int first = window.start();
+    int conflicts = 0;
+    int next = 0;
+    int runFirst = Integer.MIN_VALUE;
+    while (first <= lastStart) {
+      while (next < changes.length && (changes[next] >> 1) <= first) {
+        conflicts += (changes[next++] & 1) == 1 ? 1 : -1;
+      }
+      // The number of conflicts stays the same until the next change.
+      int changeAt = next < changes.length ? (int) (changes[next] >> 1) : Integer.MAX_VALUE;
+      int last = (int) Math.min((long) changeAt - 1, lastStart);
+
+      if (conflicts <= allowedConflicts) {
+        if (runFirst == Integer.MIN_VALUE) {
+          runFirst = first;
+        }
+      } else if (runFirst != Integer.MIN_VALUE) {
+        slots.add(TimeRange.fromStartEnd(runFirst, first - 1 + length, false));
+        runFirst = Integer.MIN_VALUE;
+      }
+      first = last + 1;
+    }
+    if (runFirst != Integer.MIN_VALUE) {
+      slots.add(TimeRange.fromStartEnd(runFirst, lastStart + length, false));
+    }
+    return slots;
+  }
+}
@@ -0,0 +1,237 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An event that repeats, such as a daily standup or a weekly 1:1, kept as a rule instead of one
+ * {@link Event} per occurrence. Occurrence {@code i} starts {@code i * period} minutes after the
+ * first one and lasts as long as it. The rule stops after {@code count} occurrences, and single
+ * occurrences can be cancelled as exceptions. Recurring events are considered read-only.
+ *
+ * <p>Occurrences are never stored. {@link #occurrences} works out the first occurrence that
+ * reaches into a window with a division rather than by stepping through the earlier ones, so the
+ * cost of a query depends on how many occurrences fall inside its window, not on how long the
+ * event has been repeating.
+ */
+public final class RecurringEvent {
+  /** The count to use for an event that repeats forever. */
+  public static final int FOREVER = Integer.MAX_VALUE;
+
+  private final String title;
+  private final TimeRange first;
+  private final int period;
+  private final int count;
+  private final AttendeeSet attendees;
+  // The start times of cancelled occurrences, sorted and without duplicates.
+  private final int[] exceptions;
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param first The time of the first occurrence. Must be non-null.
+   * @param period The minutes from the start of one occurrence to the start of the next. Must be
+   *     positive.
+   * @param count How many times the event happens, or {@link #FOREVER}. Must not be negative.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   */
+  public RecurringEvent(
+      String title, TimeRange first, int period, int count, Collection<String> attendees) {
+    this(title, first, period, count, AttendeeSet.of(checkNotNull(attendees, "attendees")),
+        new int[0]);
+  }
+
+  private RecurringEvent(String title, TimeRange first, int period, int count,
+      AttendeeSet attendees, int[] exceptions) {
+    if (title == null) {
+      throw new IllegalArgumentException("title cannot be null");
+    }
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+    if (period <= 0) {
+      throw new IllegalArgumentException("period must be positive");
+    }
+    if (count < 0) {
+      throw new IllegalArgumentException("count cannot be negative");
+    }
+
+    this.title = title;
+    this.first = first;
+    this.period = period;
+    this.count = count;
+    this.attendees = attendees;
+    this.exceptions = exceptions;
+  }
+
+  /**
+   * Creates a recurring event whose last occurrence is the last one that starts before {@code
+   * until}.
+   */
+  public static RecurringEvent until(
+      String title, TimeRange first, int period, int until, Collection<String> attendees) {
+    if (first == null) {
+      throw new IllegalArgumentException("first cannot be null");
+    }
+    if (period <= 0) {
+      throw new IllegalArgumentException("period must be positive");
+    }
+
+    long span = (long) until - first.start();
+    int count = span <= 0 ? 0 : (int) Math.min((span + period - 1) / period, FOREVER);
+    return new RecurringEvent(title, first, period, count, attendees);
+  }
+
+  /**
+   * Returns a copy of this event with the occurrence that starts at {@code start} cancelled. A
+   * start time that isn't an occurrence is ignored when expanding.
+   */
+  public RecurringEvent withException(int start) {
+    int index = Arrays.binarySearch(exceptions, start);
+    if (index >= 0) {
+      return this;
+    }
+
+    int insertAt = -index - 1;
+    int[] withException = new int[exceptions.length + 1];
+    System.arraycopy(exceptions, 0, withException, 0, insertAt);
+    withException[insertAt] = start;
+    System.arraycopy(exceptions, insertAt, withException, insertAt + 1,
+        exceptions.length - insertAt);
+    return new RecurringEvent(title, first, period, count, attendees, withException);
+  }
+
+  /**
+   * Returns the human-readable name for this event.
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns the {@code TimeRange} of the first occurrence.
+   */
+  public TimeRange getFirst() {
+    return first;
+  }
+
+  /**
+   * Returns the minutes from the start of one occurrence to the start of the next.
+   */
+  public int getPeriod() {
+    return period;
+  }
+
+  /**
+   * Returns how many times the event happens, counting cancelled occurrences, or {@link #FOREVER}.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns a read-only set of required attendees for this event.
+   */
+  public AttendeeSet getAttendees() {
+    return attendees;
+  }
+
+  /**
+   * Returns whether the occurrence that starts at {@code start} has been cancelled.
+   */
+  public boolean isException(int start) {
+    return Arrays.binarySearch(exceptions, start) >= 0;
+  }
+
+  /**
+   * Returns the occurrences that overlap {@code window}, in order, leaving out cancelled ones.
+   * Occurrences with no duration are included if they start inside the window.
+   */
+  public List<TimeRange> occurrences(TimeRange window) {
+    List<TimeRange> occurrences = new ArrayList<>();
+    forEachOccurrence(window, (start, end) -> occurrences.add(
+        TimeRange.fromStartEnd(start, end, false)));
+    return occurrences;
+  }
+
+  /** Receives the start and end of each occurrence without boxing or allocating. */
+  interface OccurrenceConsumer {
+    void accept(int start, int end);
+  }
+
+  /**
+   * Hands the start and end of each occurrence that {@link #occurrences} would return to {@code
+   * consumer}.
+   */
+  void forEachOccurrence(TimeRange window, OccurrenceConsumer consumer) {
+    long duration = first.duration();
+    long firstStart = first.start();
+    // Occurrence i reaches into the window once firstStart + i * period + duration passes its
+    // start, and is past it once firstStart + i * period reaches its end. An occurrence with no
+    // duration is treated as one minute long, so that it still counts when it starts the window.
+    long from = Math.max(0,
+        Math.floorDiv(window.start() - firstStart - Math.max(duration, 1), (long) period) + 1);
+    long to = Math.min(count, Math.floorDiv(window.end() - 1 - firstStart, (long) period) + 1);
+
+    long start = firstStart + from * period;
+    int exception = exceptionIndex(start);
+    for (long i = from; i < to; i++, start += period) {
+      while (exception < exceptions.length && exceptions[exception] < start) {
+        exception++;
+      }
+      if (exception < exceptions.length && exceptions[exception] == start) {
+        continue;
+      }
+      consumer.accept((int) start, (int) (start + duration));
+    }
+  }
+
+  // Returns the index of the first exception at or after start.
+  private int exceptionIndex(long start) {
+    if (start > Integer.MAX_VALUE) {
+      return exceptions.length;
+    }
+    int index = Arrays.binarySearch(exceptions, (int) Math.max(start, Integer.MIN_VALUE));
+    return index >= 0 ? index : -index - 1;
+  }
+
+  private static <T> T checkNotNull(T value, String name) {
+    if (value == null) {
+      throw new IllegalArgumentException(name + " cannot be null");
+    }
+    return value;
+  }
+
+  @Override
+  public int hashCode() {
+    return title.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof RecurringEvent)) {
+      return false;
+    }
+    RecurringEvent event = (RecurringEvent) other;
+    return title.equals(event.title) && first.equals(event.first) && period == event.period
+        && count == event.count && attendees.equals(event.attendees)
+        && Arrays.equals(exceptions, event.exceptions);
+  }
+}
@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link BusySchedule} that adds recurring events to the busy times of another schedule. Only
+ * the occurrences inside the window of each query are ever expanded, and only those of the
+ * recurring events that the requested attendees go to, so a rule that repeats forever costs no
+ * more than the occurrences a query can see.
+ *
+ * <p>Queries that don't say which window they look in get the occurrences in the default window
+ * given to the constructor.
+ */
+public final class RecurringSchedule implements BusySchedule {
+  // Collects occurrences as keys built with BusyIntervals.pack.
+  private static final class PackedOccurrences implements RecurringEvent.OccurrenceConsumer {
+    long[] keys = new long[16];
+    int count;
+
+    @Override
+    public void accept(int start, int end) {
+      if (count == keys.length) {
+        keys = Arrays.copyOf(keys, count * 2);
+      }
+      keys[count++] = BusyIntervals.pack(start, end);
+    }
+  }
+
+  private final BusySchedule schedule;
+  private final TimeRange window;
+  private final Map<String, List<RecurringEvent>> eventsByAttendee = new HashMap<>();
+
+  /**
+   * Creates a new schedule.
+   *
+   * @param schedule The busy times from one-off events. Must be non-null.
+   * @param events The recurring events that attendees are busy with. Must be non-null.
+   * @param window The window to expand occurrences in when a query doesn't give one. Must be
+   *     non-null.
+   */
+  public RecurringSchedule(
+      BusySchedule schedule, Collection<RecurringEvent> events, TimeRange window) {
+    if (schedule == null) {
+      throw new IllegalArgumentException("schedule cannot be null");
+    }
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+    if (window == null) {
+      throw new IllegalArgumentException("window cannot be null");
+    }
+
+    this.schedule = schedule;
+    this.window = window;
+    for (RecurringEvent event : events) {
+      // An event with no duration never makes anyone busy, so there is no reason to keep it.
+      if (event.getFirst().duration() <= 0 || event.getCount() == 0) {
+        continue;
+      }
+      for (String attendee : event.getAttendees()) {
+        eventsByAttendee.computeIfAbsent(attendee, key -> new ArrayList<>()).add(event);
+      }
+    }
+  }
+
+  @Override
+  public BusyIntervals getBusyIntervals(Collection<String> attendees) {
+    return getBusyIntervals(attendees, window);
+  }
+
+  /**
+   * Returns the busy times of {@code attendees} from the wrapped schedule plus the occurrences of
+   * their recurring events inside {@code window}.
+   */
+  @Override
+  public BusyIntervals getBusyIntervals(Collection<String> attendees, TimeRange window) {
+    if (window == null) {
+      throw new IllegalArgumentException("window cannot be null");
+    }
+    BusyIntervals busy = schedule.getBusyIntervals(attendees, window);
+
+    // An event that several of the attendees go to only needs to be expanded once.
+    Set<RecurringEvent> events = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (String attendee : attendees) {
+      events.addAll(eventsByAttendee.getOrDefault(attendee, Collections.emptyList()));
+    }
+    if (events.isEmpty()) {
+      return busy;
+    }
+
+    PackedOccurrences occurrences = new PackedOccurrences();
+    for (RecurringEvent event : events) {
+      event.forEachOccurrence(window, occurrences);
+    }
+    return BusyIntervals.merge(
+        busy, BusyIntervals.fromPacked(occurrences.keys, occurrences.count));
+  }
+}
@@ -0,0 +1,46 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Scores a candidate meeting slot for {@link SweepMeetingQuery#queryTopK}. Higher scores are
+ * better, and slots with the same score are ranked by start time.
+ */
+@FunctionalInterface
+public interface SlotScorer {
+  /**
+   * Prefers slots that start earlier.
+   */
+  SlotScorer EARLIEST_START = (start, end, duration, optionalConflicts) -> -start;
+
+  /**
+   * Prefers slots with the most free time left over around the meeting.
+   */
+  SlotScorer LARGEST_BUFFER = (start, end, duration, optionalConflicts) -> end - start - duration;
+
+  /**
+   * Prefers slots that the fewest optional attendees are busy during.
+   */
+  SlotScorer FEWEST_OPTIONAL_CONFLICTS =
+      (start, end, duration, optionalConflicts) -> -optionalConflicts;
+
+  /**
+   * Scores the open slot {@code [start, end)}.
+   *
+   * @param duration The duration of the requested meeting, which fits in the slot.
+   * @param optionalConflicts How many optional attendees are busy at some point in the slot.
+   */
+  double score(int start, int end, long duration, int optionalConflicts);
+}
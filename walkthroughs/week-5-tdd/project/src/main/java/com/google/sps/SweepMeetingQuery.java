@@ -0,0 +1,460 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link MeetingQuery} that merges the busy times into primitive arrays and finds every gap in a
+ * single sweep. It returns exactly what {@link FindMeetingQuery} returns, but does not copy or sort
+ * the events and only allocates {@code TimeRange}s for the ranges it hands back.
+ *
+ * <p>A query whose thread is interrupted gives up before its next phase by throwing a {@link
+ * CancellationException}.
+ */
+public final class SweepMeetingQuery implements MeetingQuery {
+  // Where each phase of the query spends its time, for the /query-stats page.
+  private static final QueryStats STATS = QueryStats.getDefault();
+
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    return query(new EventList(events), request, null, null);
+  }
+
+  /**
+   * Returns the open time ranges for {@code request}, only looking at the events of the people in
+   * the request.
+   */
+  public Collection<TimeRange> query(BusySchedule schedule, MeetingRequest request) {
+    return query(schedule, request, null, null);
+  }
+
+  /**
+   * Like {@link #query(BusySchedule, MeetingRequest)}, but if the request has both required and
+   * optional attendees, first hands {@code requiredSlots} the open time ranges of the required
+   * attendees alone. Those are the ranges the optional attendees are about to narrow down, and
+   * they are a useful answer on their own if there is no time to wait for the rest.
+   */
+  public Collection<TimeRange> query(BusySchedule schedule, MeetingRequest request,
+      Consumer<? super List<TimeRange>> requiredSlots) {
+    if (requiredSlots == null) {
+      throw new IllegalArgumentException("requiredSlots cannot be null");
+    }
+    return query(schedule, request, null, requiredSlots);
+  }
+
+  /**
+   * Returns the open time ranges for {@code request} anywhere within {@code horizon}, which may
+   * span many days. Ranges are not split at midnight, so a meeting can run from one day into the
+   * next. Optional attendees are handled the same way as in the single-day query.
+   *
+   * @param events The events that attendees are already busy with. Must be non-null.
+   * @param request The duration of the requested meeting and the people attending. Must be
+   *     non-null.
+   * @param horizon The window to look for open time in. Must be non-null.
+   */
+  public Collection<TimeRange> query(
+      Collection<Event> events, MeetingRequest request, TimeRange horizon) {
+    if (horizon == null) {
+      throw new IllegalArgumentException("horizon cannot be null");
+    }
+    return query(new EventList(events), request, horizon, null);
+  }
+
+  /**
+   * Like {@link #query(Collection, MeetingRequest, TimeRange)}, but only looks at the events of
+   * the people in the request.
+   */
+  public Collection<TimeRange> query(
+      BusySchedule schedule, MeetingRequest request, TimeRange horizon) {
+    if (horizon == null) {
+      throw new IllegalArgumentException("horizon cannot be null");
+    }
+    return query(schedule, request, horizon, null);
+  }
+
+  /**
+   * Returns the {@code k} best open time ranges for {@code request} according to {@code scorer},
+   * best first. The candidates are the same ranges {@link #query(Collection, MeetingRequest)}
+   * considers before it looks at the optional attendees, but only {@code k} of them are ever
+   * turned into {@code TimeRange}s and nothing is sorted.
+   *
+   * @param events The events that attendees are already busy with. Must be non-null.
+   * @param request The duration of the requested meeting and the people attending. Must be
+   *     non-null.
+   * @param k How many ranges to return at most. Must be positive.
+   * @param scorer How to rank the ranges. Must be non-null.
+   */
+  public List<TimeRange> queryTopK(
+      Collection<Event> events, MeetingRequest request, int k, SlotScorer scorer) {
+    return rankSlots(new EventList(events), request, null, k, scorer);
+  }
+
+  /**
+   * Like {@link #queryTopK(Collection, MeetingRequest, int, SlotScorer)}, but looks for ranges
+   * anywhere within {@code horizon} like {@link #query(BusySchedule, MeetingRequest, TimeRange)}.
+   */
+  public List<TimeRange> queryTopK(
+      BusySchedule schedule, MeetingRequest request, TimeRange horizon, int k, SlotScorer scorer) {
+    if (horizon == null) {
+      throw new IllegalArgumentException("horizon cannot be null");
+    }
+    return rankSlots(schedule, request, horizon, k, scorer);
+  }
+
+  /**
+   * Ranks the gaps in the required attendees' busy times, within the legacy day if {@code
+   * horizon} is null.
+   */
+  private static List<TimeRange> rankSlots(BusySchedule schedule, MeetingRequest request,
+      TimeRange horizon, int k, SlotScorer scorer) {
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+    if (scorer == null) {
+      throw new IllegalArgumentException("scorer cannot be null");
+    }
+
+    TimeRange window = horizon == null ? TimeRange.WHOLE_DAY : horizon;
+    long duration = request.getDuration();
+    if (duration > window.duration()) {
+      return Collections.emptyList();
+    }
+
+    Collection<String> attendees = request.getAttendees();
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+    if (attendees.isEmpty()) {
+      // With nobody required, the optional attendees are treated as if they were required.
+      attendees = optionalAttendees;
+      optionalAttendees = Collections.emptyList();
+    }
+
+    BusyIntervals busy =
+        withUnavailable(schedule.getBusyIntervals(attendees, window), request, attendees, window);
+    TimeRangeArray gaps = findGaps(busy, duration, horizon);
+
+    // Every optional attendee's busy times are found together, so raw events are only read once.
+    checkNotCancelled();
+    List<BusyIntervals> busyByAttendee =
+        schedule.getBusyIntervalsOfEach(optionalAttendees, window);
+    BusyIntervals[] optionalBusy = new BusyIntervals[optionalAttendees.size()];
+    int next = 0;
+    for (String attendee : optionalAttendees) {
+      Collection<String> group = Collections.singleton(attendee);
+      optionalBusy[next] = withUnavailable(busyByAttendee.get(next), request, group, window);
+      next++;
+    }
+    return selectTopK(gaps, optionalBusy, duration, k, scorer);
+  }
+
+  /**
+   * Adds the times during {@code window} when one of {@code group} is outside the availability
+   * that {@code request} gives them to their busy times. Requests that don't limit anyone's
+   * availability get {@code busy} back unchanged.
+   */
+  private static BusyIntervals withUnavailable(
+      BusyIntervals busy, MeetingRequest request, Collection<String> group, TimeRange window) {
+    if (request.getAvailability().isEmpty()) {
+      return busy;
+    }
+    return BusyIntervals.merge(busy, BusyIntervals.ofUnavailable(request, group, window));
+  }
+
+  /**
+   * Decides whose busy times matter for {@code request}, finds the gaps in them within {@code
+   * horizon}, or within the legacy day if it is null, and narrows the gaps down by the optional
+   * attendees. The gaps found before narrowing go to {@code requiredSlots} first, unless it is
+   * null.
+   */
+  private static Collection<TimeRange> query(BusySchedule schedule, MeetingRequest request,
+      TimeRange horizon, Consumer<? super List<TimeRange>> requiredSlots) {
+    TimeRange window = horizon == null ? TimeRange.WHOLE_DAY : horizon;
+    if (request.getDuration() > window.duration()) {
+      return Collections.emptyList();
+    }
+
+    Collection<String> attendees = request.getAttendees();
+    Collection<String> optionalAttendees = request.getOptionalAttendees();
+    Function<Collection<String>, BusyIntervals> busyOrUnavailable =
+        group -> {
+          checkNotCancelled();
+          return withUnavailable(schedule.getBusyIntervals(group, window), request, group, window);
+        };
+    if (request.hasPartialQuorum()) {
+      // Everyone's busy times are found together, so raw events and files are only read once.
+      checkNotCancelled();
+      List<BusyIntervals> busy = schedule.getBusyIntervalsOfEach(attendees, window);
+      List<BusyIntervals> busyByAttendee = new ArrayList<>(attendees.size());
+      for (String attendee : attendees) {
+        Collection<String> group = Collections.singleton(attendee);
+        busyByAttendee.add(
+            withUnavailable(busy.get(busyByAttendee.size()), request, group, window));
+      }
+      return QuorumMeetingQuery.findQuorumSlots(
+          busyByAttendee, request.getQuorum(), request.getDuration(), window);
+    }
+    if (attendees.isEmpty() && optionalAttendees.isEmpty()) {
+      return Arrays.asList(window);
+    }
+    if (attendees.isEmpty()) {
+      // With nobody required, the optional attendees are treated as if they were required.
+      attendees = optionalAttendees;
+      optionalAttendees = Collections.emptyList();
+    }
+
+    long started = System.nanoTime();
+    BusyIntervals busy = busyOrUnavailable.apply(attendees);
+    started = STATS.record(QueryStats.Phase.FILTER, started);
+    checkNotCancelled();
+    TimeRangeArray gaps = findGaps(busy, request.getDuration(), horizon);
+    STATS.count(QueryStats.Counter.GAPS_FOUND, gaps.size());
+    started = STATS.record(QueryStats.Phase.FIND_GAPS, started);
+    if (optionalAttendees.isEmpty()) {
+      return gaps.toList();
+    }
+
+    if (requiredSlots != null) {
+      requiredSlots.accept(gaps.toList());
+    }
+    preferOptionalFree(gaps, busyOrUnavailable.apply(optionalAttendees));
+    STATS.record(QueryStats.Phase.OPTIONAL_ATTENDEES, started);
+    return gaps.toList();
+  }
+
+  /**
+   * Throws if the thread running the query has been interrupted, such as by a deadline that has
+   * already been answered. The interrupt is left set for the caller to see.
+   */
+  private static void checkNotCancelled() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("query was cancelled");
+    }
+  }
+
+  /**
+   * Finds the gaps in {@code busy} within {@code horizon}, or within the legacy day if it is null,
+   * that are at least {@code duration} minutes long.
+   */
+  private static TimeRangeArray findGaps(BusyIntervals busy, long duration, TimeRange horizon) {
+    return horizon == null ? findGaps(busy, duration) : findHorizonGaps(busy, duration, horizon);
+  }
+
+  /**
+   * Finds the gaps in {@code busy} during the day that are at least {@code duration} minutes long.
+   */
+  private static TimeRangeArray findGaps(BusyIntervals busy, long duration) {
+    int count = busy.size();
+    TimeRangeArray gaps = new TimeRangeArray(count + 1);
+    if (busy.isEmpty()) {
+      gaps.add(PackedTimeRange.of(TimeRange.WHOLE_DAY));
+      return gaps;
+    }
+
+    if (busy.start(0) - TimeRange.START_OF_DAY >= duration) {
+      gaps.add(TimeRange.START_OF_DAY, busy.start(0));
+    }
+    for (int i = 1; i < count; i++) {
+      if (busy.start(i) - busy.end(i - 1) >= duration) {
+        gaps.add(busy.end(i - 1), busy.start(i));
+      }
+    }
+    // The last gap runs through the inclusive END_OF_DAY, but like FindMeetingQuery its length is
+    // only measured up to END_OF_DAY.
+    if (TimeRange.END_OF_DAY - busy.end(count - 1) >= duration) {
+      gaps.add(busy.end(count - 1), TimeRange.END_OF_DAY + 1);
+    }
+    return gaps;
+  }
+
+  /**
+   * Finds the gaps in {@code busy} within {@code horizon} that are at least {@code duration}
+   * minutes long.
+   */
+  private static TimeRangeArray findHorizonGaps(
+      BusyIntervals busy, long duration, TimeRange horizon) {
+    int count = busy.size();
+    TimeRangeArray gaps = new TimeRangeArray(count + 1);
+
+    // The earliest time that nobody has been busy since, starting from the front of the horizon.
+    int free = horizon.start();
+    for (int i = 0; i < count && free < horizon.end(); i++) {
+      int gapEnd = Math.min(busy.start(i), horizon.end());
+      if (gapEnd > free && gapEnd - free >= duration) {
+        gaps.add(free, gapEnd);
+      }
+      free = Math.max(free, busy.end(i));
+    }
+    if (horizon.end() > free && horizon.end() - free >= duration) {
+      gaps.add(free, horizon.end());
+    }
+    return gaps;
+  }
+
+  /**
+   * Narrows {@code gaps} down, in place, to the gaps that don't overlap {@code optionalBusy}. If
+   * all of them do, {@code gaps} is left as it is.
+   */
+  private static void preferOptionalFree(TimeRangeArray gaps, BusyIntervals optionalBusy) {
+    int kept = 0;
+    int next = 0;
+    for (int i = 0; i < gaps.size(); i++) {
+      long gap = gaps.get(i);
+      int gapStart = PackedTimeRange.start(gap);
+      // Both lists are sorted, so busy intervals that end before this gap can't reach later ones.
+      while (next < optionalBusy.size() && optionalBusy.end(next) <= gapStart) {
+        next++;
+      }
+      // An empty gap still overlaps an interval that contains its start.
+      int overlapEnd = Math.max(PackedTimeRange.end(gap), gapStart + 1);
+      if (next == optionalBusy.size() || optionalBusy.start(next) >= overlapEnd) {
+        // Only gaps at or before i have been read, so the kept ones can be written over them.
+        gaps.set(kept++, gap);
+      }
+    }
+    if (kept > 0) {
+      gaps.truncate(kept);
+    }
+  }
+
+  /**
+   * Scores every gap and keeps the best {@code k} in a heap whose root is the worst one kept.
+   */
+  private static List<TimeRange> selectTopK(TimeRangeArray gaps, BusyIntervals[] optionalBusy,
+      long duration, int k, SlotScorer scorer) {
+    int capacity = Math.min(k, gaps.size());
+    double[] scores = new double[capacity];
+    long[] slots = new long[capacity];
+    int size = 0;
+
+    // Where each optional attendee's sweep has got to. Gaps are sorted, so it only moves forward.
+    int[] nextBusy = new int[optionalBusy.length];
+    for (int i = 0; i < gaps.size(); i++) {
+      long gap = gaps.get(i);
+      int start = PackedTimeRange.start(gap);
+      int end = PackedTimeRange.end(gap);
+      // An empty gap still overlaps an interval that contains its start.
+      int overlapEnd = Math.max(end, start + 1);
+
+      int conflicts = 0;
+      for (int attendee = 0; attendee < optionalBusy.length; attendee++) {
+        BusyIntervals intervals = optionalBusy[attendee];
+        int next = nextBusy[attendee];
+        while (next < intervals.size() && intervals.end(next) <= start) {
+          next++;
+        }
+        nextBusy[attendee] = next;
+        if (next < intervals.size() && intervals.start(next) < overlapEnd) {
+          conflicts++;
+        }
+      }
+
+      double score = scorer.score(start, end, duration, conflicts);
+      if (size < capacity) {
+        scores[size] = score;
+        slots[size] = gap;
+        siftUp(scores, slots, size++);
+      } else if (isWorse(scores[0], slots[0], score, gap)) {
+        scores[0] = score;
+        slots[0] = gap;
+        siftDown(scores, slots, size);
+      }
+    }
+
+    // Taking the worst off the heap one at a time fills the list from the back.
+    TimeRange[] best = new TimeRange[size];
+    for (int last = size - 1; last >= 0; last--) {
+      best[last] = PackedTimeRange.toTimeRange(slots[0]);
+      scores[0] = scores[last];
+      slots[0] = slots[last];
+      siftDown(scores, slots, last);
+    }
+    return Arrays.asList(best);
+  }
+
+  /**
+   * Returns true if slot {@code a} ranks below slot {@code b}. Of two slots with the same score,
+   * the one that starts later ranks lower.
+   */
+  private static boolean isWorse(double scoreA, long slotA, double scoreB, long slotB) {
+    int byScore = Double.compare(scoreA, scoreB);
+    return byScore < 0 || (byScore == 0 && slotA > slotB);
+  }
+
+  private static void siftUp(double[] scores, long[] slots, int index) {
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (!isWorse(scores[index], slots[index], scores[parent], slots[parent])) {
+        return;
+      }
+      swap(scores, slots, index, parent);
+      index = parent;
+    }
+  }
+
+  private static void siftDown(double[] scores, long[] slots, int size) {
+    int index = 0;
+    while (true) {
+      int worst = index;
+      for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+        if (isWorse(scores[child], slots[child], scores[worst], slots[worst])) {
+          worst = child;
+        }
+      }
+      if (worst == index) {
+        return;
+      }
+      swap(scores, slots, index, worst);
+      index = worst;
+    }
+  }
+
+  private static void swap(double[] scores, long[] slots, int i, int j) {
+    double score = scores[i];
+    scores[i] = scores[j];
+    scores[j] = score;
+    long slot = slots[i];
+    slots[i] = slots[j];
+    slots[j] = slot;
+  }
+
+  /**
+   * The busy times of a plain collection of events, which every call has to scan in full.
+   */
+  private static final class EventList implements BusySchedule {
+    private final Collection<Event> events;
+
+    EventList(Collection<Event> events) {
+      this.events = events;
+    }
+
+    @Override
+    public BusyIntervals getBusyIntervals(Collection<String> attendees) {
+      return BusyIntervals.of(events, attendees);
+    }
+
+    @Override
+    public List<BusyIntervals> getBusyIntervalsOfEach(
+        Collection<String> attendees, TimeRange window) {
+      return BusyIntervals.ofEach(events, attendees);
+    }
+  }
+}
@@ -14,6 +14,13 @@
 
 package com.google.sps;
 
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.time.Instant;
 import java.util.Comparator;
 
 /**
@@ -21,10 +28,12 @@ import java.util.Comparator;
  * providing methods to make ranges easier to work with (e.g. {@code overlaps}).
  */
 public final class TimeRange {
+  public static final int MINUTES_PER_DAY = 24 * 60;
+
   public static final int START_OF_DAY = getTimeInMinutes(0, 0);
   public static final int END_OF_DAY = getTimeInMinutes(23, 59);
 
-  public static final TimeRange WHOLE_DAY = new TimeRange(0, 24 * 60);
+  public static final TimeRange WHOLE_DAY = new TimeRange(0, MINUTES_PER_DAY);
 
   /**
    * A comparator for sorting ranges by their start time in ascending order.
@@ -168,6 +177,43 @@ public final class TimeRange {
     return (hours * 60) + minutes;
   }
 
+  /**
+   * Returns the number of minutes from the start of day zero to {@code hours}:{@code minutes} on
+   * day {@code day}. Use this for times in ranges that span more than one day.
+   */
+  public static int getTimeInMinutes(int day, int hours, int minutes) {
+    return Math.addExact(
+        Math.multiplyExact(day, MINUTES_PER_DAY), getTimeInMinutes(hours, minutes));
+  }
+
+  /**
+   * Returns the number of whole minutes between the Unix epoch and {@code instant}. Minutes since
+   * the epoch fit in an {@code int} until the year 6053.
+   */
+  public static int getEpochMinute(Instant instant) {
+    return Math.toIntExact(Math.floorDiv(instant.getEpochSecond(), 60L));
+  }
+
+  /**
+   * Returns the instant that is {@code epochMinute} minutes after the Unix epoch.
+   */
+  public static Instant toInstant(int epochMinute) {
+    return Instant.ofEpochSecond(epochMinute * 60L);
+  }
+
+  /**
+   * Creates a {@code TimeRange} covering {@code days} whole days, starting at the beginning of day
+   * {@code firstDay}.
+   */
+  public static TimeRange fromDays(int firstDay, int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("days cannot be negative");
+    }
+
+    int start = Math.multiplyExact(firstDay, MINUTES_PER_DAY);
+    return new TimeRange(start, Math.multiplyExact(days, MINUTES_PER_DAY));
+  }
+
   /**
    * Creates a {@code TimeRange} from {@code start} to {@code end}. Whether or not {@code end} is
    * included in the range will depend on {@code inclusive}. If {@code inclusive} is {@code true},
@@ -183,4 +229,50 @@ public final class TimeRange {
   public static TimeRange fromStartDuration(int start, int duration) {
     return new TimeRange(start, duration);
   }
+
+  /**
+   * Reads and writes a {@code TimeRange} as {@code {"start": ..., "duration": ...}} straight from
+   * the JSON stream, without reflection.
+   */
+  public static final class GsonAdapter extends TypeAdapter<TimeRange> {
+    @Override
+    public void write(JsonWriter out, TimeRange range) throws IOException {
+      if (range == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("start").value(range.start);
+      out.name("duration").value(range.duration);
+      out.endObject();
+    }
+
+    @Override
+    public TimeRange read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      int start = 0;
+      int duration = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        switch (in.nextName()) {
+          case "start":
+            start = in.nextInt();
+            break;
+          case "duration":
+            duration = in.nextInt();
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      if (duration < 0) {
+        throw new JsonParseException("duration cannot be negative");
+      }
+      return fromStartDuration(start, duration);
+    }
+  }
 }
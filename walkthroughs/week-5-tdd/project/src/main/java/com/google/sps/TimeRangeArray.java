@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of ranges stored as {@link PackedTimeRange packed longs}, so that building up a
+ * list of ranges only allocates when the backing array has to grow. Use {@link #toList()} to turn
+ * the ranges back into {@code TimeRange} objects once they are ready to be returned.
+ */
+public final class TimeRangeArray {
+  private static final int DEFAULT_CAPACITY = 8;
+
+  private long[] ranges;
+  private int size;
+
+  public TimeRangeArray() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public TimeRangeArray(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+    ranges = new long[capacity];
+  }
+
+  /**
+   * Adds a packed range to the end of the array.
+   */
+  public void add(long range) {
+    if (size == ranges.length) {
+      ranges = Arrays.copyOf(ranges, Math.max(DEFAULT_CAPACITY, size * 2));
+    }
+    ranges[size++] = range;
+  }
+
+  /**
+   * Adds the range from {@code start} to the exclusive {@code end} to the end of the array.
+   */
+  public void add(int start, int end) {
+    add(PackedTimeRange.fromStartEnd(start, end));
+  }
+
+  /**
+   * Returns the packed range at {@code index}.
+   */
+  public long get(int index) {
+    checkIndex(index);
+    return ranges[index];
+  }
+
+  public void set(int index, long range) {
+    checkIndex(index);
+    ranges[index] = range;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Drops every range from {@code size} onwards, keeping the backing array for reuse.
+   */
+  public void truncate(int size) {
+    if (size < 0 || size > this.size) {
+      throw new IndexOutOfBoundsException("size " + size + " is out of bounds");
+    }
+    this.size = size;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns the ranges as a new list of {@code TimeRange} objects.
+   */
+  public List<TimeRange> toList() {
+    List<TimeRange> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(PackedTimeRange.toTimeRange(ranges[i]));
+    }
+    return list;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " is out of bounds");
+    }
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BatchMeetingQuery;
+import com.google.sps.BusySchedule;
+import com.google.sps.JsonCodecs;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a JSON array of meeting requests in one round trip. The response is a JSON array with
+ * the possible meeting times for each request, in the same order as the requests.
+ */
+@WebServlet("/query-batch")
+public class BatchQueryServlet extends HttpServlet {
+  private static final Type MEETING_REQUEST_LIST =
+      new TypeToken<List<MeetingRequest>>() {}.getType();
+
+  private final Gson gson = JsonCodecs.getGson();
+
+  private ForkJoinPool pool;
+  private BatchMeetingQuery batchMeetingQuery;
+  private Supplier<BusySchedule> schedule;
+
+  @Override
+  public void init() throws ServletException {
+    pool = new ForkJoinPool();
+    batchMeetingQuery = new BatchMeetingQuery(pool);
+    schedule = SharedEventStore.getSchedule(getServletContext());
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to a list of MeetingRequests.
+    List<MeetingRequest> meetingRequests;
+    try {
+      meetingRequests = gson.fromJson(request.getReader(), MEETING_REQUEST_LIST);
+    } catch (JsonParseException | IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+    if (meetingRequests == null) {
+      meetingRequests = Collections.emptyList();
+    }
+
+    if (meetingRequests.contains(null)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "requests cannot contain null");
+      return;
+    }
+
+    // Find the possible meeting times for every request, all against the same snapshot.
+    List<Collection<TimeRange>> answers =
+        batchMeetingQuery.query(schedule.get(), meetingRequests);
+
+    // Send the JSON back as the response
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(answers));
+  }
+}
@@ -0,0 +1,224 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryStats;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs queries on a fixed number of worker threads with a bounded queue, and answers each one by
+ * its deadline no matter how far it got. Along the way a query can hand over the slots it has
+ * found so far, such as the slots that work for the required attendees alone, which stand in for
+ * the real answer if the deadline passes first.
+ *
+ * <p>Once a query has been answered at its deadline, its worker is interrupted so that it can give
+ * up between phases instead of holding the thread. Time spent waiting for a worker goes into
+ * {@link QueryStats.Phase#QUEUE} and time spent finding the real answer into {@link
+ * QueryStats.Phase#QUERY}, and rejected and partial answers are counted. A query whose deadline
+ * passes before a worker picks it up is rejected too, since nothing has been found for it.
+ */
+final class DeadlineExecutor {
+  /** Receives the single answer to a query. */
+  interface Responder {
+    /**
+     * Sends {@code answer}, which is only the slots found so far if {@code partial} is true.
+     * Partial answers are sent from the one thread that keeps every query's deadline, so they must
+     * hand anything that can block, such as writing to a client, to another thread.
+     */
+    void respond(Collection<TimeRange> answer, boolean partial);
+
+    /**
+     * Reports that the deadline passed while the query was still waiting for a worker, so nothing
+     * was found. Like a partial answer, this is called from the deadline thread and must not block.
+     */
+    void timedOutInQueue();
+
+    /** Reports that the query failed. */
+    void fail(RuntimeException e);
+  }
+
+  /** Finds the answer to a query. */
+  interface Computation {
+    /**
+     * Returns the answer, handing {@code foundSoFar} any slots found on the way that can stand in
+     * for it.
+     */
+    Collection<TimeRange> compute(Consumer<Collection<TimeRange>> foundSoFar);
+  }
+
+  private final ThreadPoolExecutor workers;
+  private final ScheduledExecutorService deadlines;
+  private final QueryStats stats;
+
+  /**
+   * Creates a new executor.
+   *
+   * @param threads How many queries run at once. Must be positive.
+   * @param queueSize How many queries can wait for a thread before new ones are rejected. Must
+   *     be positive.
+   * @param stats Where to record queueing and outcomes. Must be non-null.
+   */
+  DeadlineExecutor(int threads, int queueSize, QueryStats stats) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("threads must be positive");
+    }
+    if (queueSize <= 0) {
+      throw new IllegalArgumentException("queueSize must be positive");
+    }
+    if (stats == null) {
+      throw new IllegalArgumentException("stats cannot be null");
+    }
+
+    // The default policy throws when the queue is full, so that the caller can turn the request
+    // away at once instead of letting it wait.
+    this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize), daemonThreads("query-worker"));
+    ScheduledThreadPoolExecutor deadlines =
+        new ScheduledThreadPoolExecutor(1, daemonThreads("query-deadline"));
+    // Most queries finish in time, so drop their deadlines instead of letting them pile up.
+    deadlines.setRemoveOnCancelPolicy(true);
+    this.deadlines = deadlines;
+    this.stats = stats;
+  }
+
+  /**
+   * Starts a query that must be answered within {@code deadlineNanos}. Returns {@code false},
+   * without calling {@code responder}, if every worker is busy and the queue is full.
+   *
+   * @param answer Finds the real answer.
+   */
+  boolean submit(Computation answer, long deadlineNanos, Responder responder) {
+    Query query = new Query(answer, responder);
+    try {
+      workers.execute(query);
+    } catch (RejectedExecutionException e) {
+      stats.count(QueryStats.Counter.REJECTED, 1);
+      return false;
+    }
+    query.deadline = deadlines.schedule(query::expire, deadlineNanos, TimeUnit.NANOSECONDS);
+    return true;
+  }
+
+  /**
+   * Stops the threads. Queries that haven't been answered yet never will be.
+   */
+  void shutdown() {
+    workers.shutdownNow();
+    deadlines.shutdownNow();
+  }
+
+  private final class Query implements Runnable {
+    private final Computation answer;
+    private final Responder responder;
+    private final long submittedAt = System.nanoTime();
+    // Set by whichever of the worker and the deadline answers first. The other one does nothing.
+    private final AtomicBoolean answered = new AtomicBoolean();
+    private volatile Collection<TimeRange> foundSoFar = Collections.emptyList();
+    private volatile ScheduledFuture<?> deadline;
+    // The thread working on this query, or null if none is. Guarded by this.
+    private Thread runner;
+    // Whether a worker has picked this query up. Guarded by this.
+    private boolean pickedUp;
+
+    Query(Computation answer, Responder responder) {
+      this.answer = answer;
+      this.responder = responder;
+    }
+
+    @Override
+    public void run() {
+      stats.record(QueryStats.Phase.QUEUE, submittedAt);
+      synchronized (this) {
+        runner = Thread.currentThread();
+        pickedUp = true;
+      }
+      try {
+        if (answered.get()) {
+          // The deadline passed while this query was waiting, and has been answered already.
+          return;
+        }
+        long started = System.nanoTime();
+        Collection<TimeRange> result = answer.compute(slots -> foundSoFar = slots);
+        stats.record(QueryStats.Phase.QUERY, started);
+        if (answered.compareAndSet(false, true)) {
+          cancelDeadline();
+          responder.respond(result, false);
+        }
+      } catch (RuntimeException e) {
+        // A query cancelled by its deadline ends up here too, but has already been answered.
+        if (answered.compareAndSet(false, true)) {
+          cancelDeadline();
+          responder.fail(e);
+        }
+      } finally {
+        synchronized (this) {
+          runner = null;
+          // Don't let an interrupt meant for this query reach the next one on this thread.
+          Thread.interrupted();
+        }
+      }
+    }
+
+    void expire() {
+      if (!answered.compareAndSet(false, true)) {
+        return;
+      }
+      boolean started;
+      synchronized (this) {
+        started = pickedUp;
+        if (runner != null) {
+          runner.interrupt();
+        }
+      }
+      if (started) {
+        stats.count(QueryStats.Counter.PARTIAL_ANSWERS, 1);
+        responder.respond(foundSoFar, true);
+      } else {
+        // Give its place in the queue to a query that can still be answered in time.
+        workers.remove(this);
+        stats.count(QueryStats.Counter.REJECTED, 1);
+        responder.timedOutInQueue();
+      }
+    }
+
+    private void cancelDeadline() {
+      ScheduledFuture<?> scheduled = deadline;
+      if (scheduled != null) {
+        scheduled.cancel(false);
+      }
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      // Don't hold up the server shutting down.
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
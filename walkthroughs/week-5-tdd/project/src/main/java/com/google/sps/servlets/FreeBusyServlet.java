@@ -0,0 +1,129 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BusyIntervals;
+import com.google.sps.BusySchedule;
+import com.google.sps.FreeBusyEncoding;
+import com.google.sps.TimeRange;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Returns when each of the {@code attendee} parameters is busy during {@code [start, end)} (in
+ * minutes), without the events themselves. This is all a client needs to draw busy bars, and is a
+ * small fraction of what {@code /get-events} sends.
+ *
+ * <p>With {@code format=runs} (the default) each attendee gets the lengths of their alternating
+ * free and busy runs, and with {@code format=bitmap} a base64 string with one bit per minute. See
+ * {@link FreeBusyEncoding} for the details of both. For example:
+ *
+ * <pre>
+ * {"start": 480, "end": 1080, "format": "runs", "attendees": {"Person A": [60, 30, 90, 60]}}
+ * </pre>
+ */
+@WebServlet("/free-busy")
+public class FreeBusyServlet extends HttpServlet {
+  // Bounds the work and the size of the answer for one request.
+  private static final int MAX_WINDOW_MINUTES = 31 * TimeRange.MINUTES_PER_DAY;
+  private static final int MAX_ATTENDEES = 1000;
+
+  private static final String RUNS = "runs";
+  private static final String BITMAP = "bitmap";
+
+  private Supplier<BusySchedule> schedule;
+
+  @Override
+  public void init() throws ServletException {
+    schedule = SharedEventStore.getSchedule(getServletContext());
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    TimeRange window;
+    try {
+      window = TimeRange.fromStartEnd(Integer.parseInt(request.getParameter("start")),
+          Integer.parseInt(request.getParameter("end")), false);
+    } catch (NumberFormatException e) {
+      response.sendError(
+          HttpServletResponse.SC_BAD_REQUEST, "start and end must both be whole minutes");
+      return;
+    }
+    if (window.duration() <= 0 || window.duration() > MAX_WINDOW_MINUTES) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "end must be after start and at most " + MAX_WINDOW_MINUTES + " minutes later");
+      return;
+    }
+
+    String format = request.getParameter("format");
+    if (format == null) {
+      format = RUNS;
+    }
+    if (!format.equals(RUNS) && !format.equals(BITMAP)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be runs or bitmap");
+      return;
+    }
+
+    String[] attendeeParameters = request.getParameterValues("attendee");
+    Set<String> attendees = new LinkedHashSet<>(attendeeParameters == null
+        ? Collections.<String>emptyList() : Arrays.asList(attendeeParameters));
+    if (attendees.size() > MAX_ATTENDEES) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "at most " + MAX_ATTENDEES + " attendees can be asked for at once");
+      return;
+    }
+
+    // Every attendee is read from the same snapshot, so the answer is consistent.
+    BusySchedule snapshot = schedule.get();
+    OutputStream out = PrecomputedJson.openStream(request, response);
+    try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+      writer.beginObject();
+      writer.name("start").value(window.start());
+      writer.name("end").value(window.end());
+      writer.name("format").value(format);
+      writer.name("attendees").beginObject();
+      for (String attendee : attendees) {
+        BusyIntervals busy = snapshot.getBusyIntervals(Collections.singleton(attendee), window);
+        writer.name(attendee);
+        if (format.equals(BITMAP)) {
+          writer.value(
+              Base64.getEncoder().encodeToString(FreeBusyEncoding.bitmap(busy, window)));
+        } else {
+          writer.beginArray();
+          for (int run : FreeBusyEncoding.runLengths(busy, window)) {
+            writer.value(run);
+          }
+          writer.endArray();
+        }
+      }
+      writer.endObject();
+      writer.endObject();
+    }
+  }
+}
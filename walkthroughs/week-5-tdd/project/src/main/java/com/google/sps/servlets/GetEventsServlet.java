@@ -14,23 +14,95 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
+import com.google.sps.Event;
+import com.google.sps.EventFile;
+import com.google.sps.EventStore;
+import com.google.sps.JsonCodecs;
+import com.google.sps.TimeRange;
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Returns the events as JSON. If the request has {@code start} and {@code end} parameters (in
+ * minutes), only the events that overlap {@code [start, end)} are returned, in the order the
+ * calendar keeps them.
+ *
+ * <p>The events in the store can change with every request, and a calendar file can be too large
+ * to hold in memory, so the JSON is always streamed straight to the response as it is written
+ * instead of being built up first. Events in a calendar file are only built one at a time, if
+ * they are written at all.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private final Gson gson = JsonCodecs.getGson();
+
+  // Exactly one of these is set.
+  private EventStore eventStore;
+  private EventFile eventFile;
+
+  @Override
+  public void init() throws ServletException {
+    eventFile = SharedEventStore.getEventFile(getServletContext());
+    if (eventFile == null) {
+      eventStore = SharedEventStore.get(getServletContext());
+    }
+  }
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    String start = request.getParameter("start");
+    String end = request.getParameter("end");
+    TimeRange window = null;
+    if (start != null || end != null) {
+      try {
+        window = TimeRange.fromStartEnd(Integer.parseInt(start), Integer.parseInt(end), false);
+      } catch (NumberFormatException e) {
+        response.sendError(
+            HttpServletResponse.SC_BAD_REQUEST, "start and end must both be whole minutes");
+        return;
+      }
+      if (window.duration() < 0) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "end cannot be before start");
+        return;
+      }
+    }
+
+    // Stream the JSON back as the response.
+    OutputStream out = PrecomputedJson.openStream(request, response);
+    try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+      writer.beginArray();
+      if (eventFile != null) {
+        writeFileEvents(window, writer);
+      } else {
+        for (Event event : eventStore.snapshot().getEvents()) {
+          if (window == null || window.overlaps(event.getWhen())) {
+            gson.toJson(event, Event.class, writer);
+          }
+        }
+      }
+      writer.endArray();
+    }
+  }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+  /**
+   * Writes the events of the calendar file that overlap {@code window}, or all of them if it is
+   * null. Each event is only built if it is written.
+   */
+  private void writeFileEvents(TimeRange window, JsonWriter writer) {
+    for (int i = 0; i < eventFile.size(); i++) {
+      if (window == null || window.overlaps(
+          TimeRange.fromStartDuration(eventFile.start(i), eventFile.duration(i)))) {
+        gson.toJson(eventFile.getEvent(i), Event.class, writer);
+      }
+    }
   }
 }
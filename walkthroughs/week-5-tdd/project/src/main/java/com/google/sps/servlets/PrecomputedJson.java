@@ -0,0 +1,167 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * A JSON response body that never changes, encoded and gzip-compressed once up front. Its
+ * {@code ETag} is a hash of the content, so clients that already have it get a 304. Only use it
+ * for data that is fixed for the life of the server; JSON built from data that changes should be
+ * streamed through {@link #openStream} instead.
+ */
+final class PrecomputedJson {
+  private final byte[] bytes;
+  private final byte[] gzipped;
+  private final String eTag;
+
+  private PrecomputedJson(byte[] bytes, byte[] gzipped, String eTag) {
+    this.bytes = bytes;
+    this.gzipped = gzipped;
+    this.eTag = eTag;
+  }
+
+  static PrecomputedJson of(String json) {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    return new PrecomputedJson(bytes, gzip(bytes), "\"" + sha256(bytes) + "\"");
+  }
+
+  /**
+   * Returns the quoted, strong {@code ETag} of the JSON.
+   */
+  String getETag() {
+    return eTag;
+  }
+
+  /**
+   * Returns the JSON encoded as UTF-8.
+   */
+  byte[] getBytes() {
+    return bytes.clone();
+  }
+
+  /**
+   * Returns the JSON encoded as UTF-8 and then gzip-compressed.
+   */
+  byte[] getGzipped() {
+    return gzipped.clone();
+  }
+
+  /**
+   * Sends the JSON, compressed if the client accepts gzip, or a 304 if the client's
+   * {@code If-None-Match} header already names this version.
+   */
+  void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    response.setHeader("ETag", eTag);
+    response.setHeader("Vary", "Accept-Encoding");
+    if (matches(request.getHeader("If-None-Match"))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+
+    byte[] body = bytes;
+    if (acceptsGzip(request.getHeader("Accept-Encoding"))) {
+      response.setHeader("Content-Encoding", "gzip");
+      body = gzipped;
+    }
+    response.setContentType("application/json;charset=UTF-8");
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Starts a JSON response that is written as it is built instead of being precomputed, and
+   * returns the stream to write it to. The stream gzip-compresses the JSON if the client accepts
+   * gzip. Close it to finish the response.
+   */
+  static OutputStream openStream(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setHeader("Vary", "Accept-Encoding");
+    response.setContentType("application/json;charset=UTF-8");
+    OutputStream out = response.getOutputStream();
+    if (acceptsGzip(request.getHeader("Accept-Encoding"))) {
+      response.setHeader("Content-Encoding", "gzip");
+      out = new GZIPOutputStream(out);
+    }
+    return out;
+  }
+
+  /**
+   * Returns true if an {@code If-None-Match} header value names this version. Weak tags match
+   * too, since a 304 only needs the content to be the same.
+   */
+  boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (tag.equals("*") || tag.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns true if an {@code Accept-Encoding} header value allows gzip. An entry that names gzip
+   * takes precedence over a {@code *} entry.
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    double quality = QualityValues.of(acceptEncoding, "gzip");
+    if (quality < 0) {
+      quality = QualityValues.of(acceptEncoding, "*");
+    }
+    return quality > 0;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(bytes);
+    } catch (IOException e) {
+      // Writing to memory can't fail.
+      throw new UncheckedIOException(e);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static String sha256(byte[] bytes) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : digest.digest(bytes)) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+}
@@ -0,0 +1,56 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+/**
+ * Reads the quality values of headers such as {@code Accept} and {@code Accept-Encoding}, which
+ * are lists of entries like {@code gzip;q=0.5}.
+ */
+final class QualityValues {
+  private QualityValues() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the quality value of the first entry of {@code header} named {@code name}, ignoring
+   * case, or -1 if there is no such entry. An entry without a {@code q} parameter has quality 1,
+   * and one whose {@code q} isn't a number has quality 0, so it is never picked.
+   */
+  static double of(String header, String name) {
+    if (header == null) {
+      return -1;
+    }
+    for (String entry : header.split(",")) {
+      String[] parts = entry.split(";");
+      if (!parts[0].trim().equalsIgnoreCase(name)) {
+        continue;
+      }
+      double quality = 1;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            quality = Double.parseDouble(parameter.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      return quality;
+    }
+    return -1;
+  }
+}
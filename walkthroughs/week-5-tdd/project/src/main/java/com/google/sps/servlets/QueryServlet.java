@@ -14,38 +14,265 @@
 
 package com.google.sps.servlets;
 
-import com.google.sps.Events;
-import com.google.sps.FindMeetingQuery;
+import com.google.sps.BinaryCodec;
+import com.google.sps.BusySchedule;
+import com.google.sps.CachedMeetingQuery;
+import com.google.sps.JsonCodecs;
 import com.google.sps.MeetingRequest;
+import com.google.sps.QueryStats;
 import com.google.sps.TimeRange;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Answers meeting requests off the container's request threads. Each request is read on the
+ * request thread and then answered on a small pool of workers with a bounded queue, so that a few
+ * huge requests can't use up every thread the container has.
+ *
+ * <p>When the queue is full the request is turned away at once with a 503. A request that isn't
+ * answered by its deadline gets the slots found so far, with the {@code X-Partial-Results}
+ * header set to {@code true}. Callers can ask for a shorter deadline with the {@code
+ * deadlineMillis} parameter.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
+  // The same meetings get asked about over and over, so recent answers are kept around.
+  private static final int CACHED_ANSWERS = 1024;
+  private static final long CACHED_ANSWER_MINUTES = 5;
+
+  // Context parameters that size the worker pool and its queue.
+  private static final String THREADS_PARAMETER = "queryThreads";
+  private static final String QUEUE_SIZE_PARAMETER = "queryQueueSize";
+  private static final int DEFAULT_QUEUE_SIZE = 64;
+
+  // How long a request may take, unless it asks for less with deadlineMillis.
+  private static final String DEADLINE_PARAMETER = "deadlineMillis";
+  private static final long DEFAULT_DEADLINE_MILLIS = 2000;
+
+  // The container gives up on the request this long after its deadline, in case the answer at
+  // the deadline somehow never gets written.
+  private static final long ASYNC_TIMEOUT_GRACE_MILLIS = 5000;
+
+  // Tells clients when to try again after a 503.
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private static final String PARTIAL_RESULTS_HEADER = "X-Partial-Results";
+
+  private final Gson gson = JsonCodecs.getGson();
+
+  private final QueryStats stats = QueryStats.getDefault();
+  private CachedMeetingQuery cachedMeetingQuery;
+  private DeadlineExecutor executor;
+
+  @Override
+  public void init() throws ServletException {
+    int threads = getIntParameter(THREADS_PARAMETER, Runtime.getRuntime().availableProcessors());
+    int queueSize = getIntParameter(QUEUE_SIZE_PARAMETER, DEFAULT_QUEUE_SIZE);
+    executor = new DeadlineExecutor(threads, queueSize, stats);
+
+    // A calendar file never changes, so answers against it only expire. Answers against the event
+    // store are also dropped as the events they depend on change.
+    Supplier<BusySchedule> schedule = SharedEventStore.getSchedule(getServletContext());
+    cachedMeetingQuery = new CachedMeetingQuery(
+        schedule, CACHED_ANSWERS, CACHED_ANSWER_MINUTES, TimeUnit.MINUTES);
+    if (!SharedEventStore.isReadOnly(getServletContext())) {
+      SharedEventStore.get(getServletContext()).addListener(cachedMeetingQuery::invalidate);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
+    long deadlineMillis;
+    try {
+      deadlineMillis = getDeadlineMillis(request);
+    } catch (IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
 
-    // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    // Convert the JSON, or the binary encoding if that's what was sent, to a MeetingRequest.
+    long started = System.nanoTime();
+    boolean binaryRequest = isBinary(request.getContentType());
+    MeetingRequest meetingRequest;
+    if (binaryRequest) {
+      try {
+        meetingRequest = BinaryCodec.readRequest(new DataInputStream(request.getInputStream()));
+      } catch (IOException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        return;
+      }
+    } else {
+      try {
+        meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+        if (meetingRequest == null) {
+          throw new IllegalArgumentException("request cannot be null");
+        }
+      } catch (JsonParseException | IllegalArgumentException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        return;
+      }
+    }
+    stats.record(QueryStats.Phase.PARSE, started);
+    boolean binaryAnswer = acceptsBinary(request.getHeader("Accept"), binaryRequest);
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    AsyncContext asyncContext = request.startAsync();
+    asyncContext.setTimeout(deadlineMillis + ASYNC_TIMEOUT_GRACE_MILLIS);
+    // The slots that work for the required attendees alone are a useful answer if there is no
+    // time to narrow them down for the optional attendees.
+    boolean accepted = executor.submit(
+        foundSoFar -> cachedMeetingQuery.query(meetingRequest, foundSoFar),
+        TimeUnit.MILLISECONDS.toNanos(deadlineMillis),
+        new AsyncResponder(asyncContext, binaryAnswer));
+    if (!accepted) {
+      try {
+        sendTooManyQueries(response);
+      } finally {
+        asyncContext.complete();
+      }
+    }
+  }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+  // Asks the client to come back later, because there are more queries than workers for them.
+  private static void sendTooManyQueries(HttpServletResponse response) throws IOException {
+    response.setHeader("Retry-After", RETRY_AFTER_SECONDS);
+    response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many queries");
+  }
+
+  /** Writes the answer to a request that was put into asynchronous mode. */
+  private final class AsyncResponder implements DeadlineExecutor.Responder {
+    private final AsyncContext asyncContext;
+    private final boolean binary;
+
+    AsyncResponder(AsyncContext asyncContext, boolean binary) {
+      this.asyncContext = asyncContext;
+      this.binary = binary;
+    }
+
+    @Override
+    public void respond(Collection<TimeRange> answer, boolean partial) {
+      if (partial) {
+        // Don't make the deadline thread, and every other query's deadline, wait on this client.
+        asyncContext.start(() -> write(answer, true));
+      } else {
+        write(answer, false);
+      }
+    }
+
+    @Override
+    public void timedOutInQueue() {
+      asyncContext.start(() -> {
+        try {
+          sendTooManyQueries((HttpServletResponse) asyncContext.getResponse());
+        } catch (IOException e) {
+          // The client has gone away, so there is nobody to tell.
+        } finally {
+          asyncContext.complete();
+        }
+      });
+    }
+
+    private void write(Collection<TimeRange> answer, boolean partial) {
+      long started = System.nanoTime();
+      HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+      try {
+        // Convert the times to JSON, or the binary encoding, and send them back as the response.
+        response.setHeader(PARTIAL_RESULTS_HEADER, Boolean.toString(partial));
+        if (binary) {
+          response.setContentType(BinaryCodec.CONTENT_TYPE);
+          DataOutputStream out = new DataOutputStream(response.getOutputStream());
+          BinaryCodec.writeAnswer(answer, out);
+          out.flush();
+        } else {
+          response.setContentType("application/json");
+          response.getWriter().println(gson.toJson(answer));
+        }
+      } catch (IOException e) {
+        // The client has gone away, so there is nobody to tell.
+      } finally {
+        asyncContext.complete();
+      }
+      stats.record(QueryStats.Phase.WRITE, started);
+      stats.count(QueryStats.Counter.QUERIES, 1);
+    }
+
+    @Override
+    public void fail(RuntimeException e) {
+      HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+      try {
+        response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+      } catch (IOException ignored) {
+        // The client has gone away, so there is nobody to tell.
+      } finally {
+        asyncContext.complete();
+      }
+      log("Query failed", e);
+    }
+  }
+
+  /**
+   * Returns true if a {@code Content-Type} header value is the binary encoding.
+   */
+  static boolean isBinary(String contentType) {
+    return contentType != null
+        && contentType.split(";")[0].trim().equalsIgnoreCase(BinaryCodec.CONTENT_TYPE);
+  }
+
+  /**
+   * Returns true if the answer should use the binary encoding: when an {@code Accept} header value
+   * asks for it, or when there is no {@code Accept} header and the request used it.
+   */
+  static boolean acceptsBinary(String accept, boolean binaryRequest) {
+    if (accept == null) {
+      return binaryRequest;
+    }
+    return QualityValues.of(accept, BinaryCodec.CONTENT_TYPE) > 0;
+  }
+
+  private long getDeadlineMillis(HttpServletRequest request) {
+    String value = request.getParameter(DEADLINE_PARAMETER);
+    if (value == null) {
+      return DEFAULT_DEADLINE_MILLIS;
+    }
+
+    long deadlineMillis;
+    try {
+      deadlineMillis = Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(DEADLINE_PARAMETER + " must be a number");
+    }
+    if (deadlineMillis <= 0) {
+      throw new IllegalArgumentException(DEADLINE_PARAMETER + " must be positive");
+    }
+    // Callers can ask for less time than the default, but not more.
+    return Math.min(deadlineMillis, DEFAULT_DEADLINE_MILLIS);
+  }
 
-    // Send the JSON back as the response
-    response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+  private int getIntParameter(String name, int defaultValue) throws ServletException {
+    String value = getServletContext().getInitParameter(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new ServletException(name + " must be a number", e);
+    }
   }
 }
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.sps.JsonCodecs;
+import com.google.sps.LatencyHistogram;
+import com.google.sps.QueryStats;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Shows where /query spends its time: for each phase, how many times it ran and its 50th, 99th
+ * and 99.9th percentile and longest durations in microseconds, plus the query counters.
+ */
+@WebServlet("/query-stats")
+public class QueryStatsServlet extends HttpServlet {
+  private final Gson gson = JsonCodecs.getGson();
+
+  private final QueryStats stats = QueryStats.getDefault();
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    Map<String, Object> phases = new LinkedHashMap<>();
+    for (QueryStats.Phase phase : QueryStats.Phase.values()) {
+      LatencyHistogram histogram = stats.getHistogram(phase);
+      Map<String, Object> summary = new LinkedHashMap<>();
+      summary.put("count", histogram.getCount());
+      summary.put("p50Micros", toMicros(histogram.getPercentile(0.5)));
+      summary.put("p99Micros", toMicros(histogram.getPercentile(0.99)));
+      summary.put("p999Micros", toMicros(histogram.getPercentile(0.999)));
+      summary.put("maxMicros", toMicros(histogram.getMax()));
+      phases.put(phase.name().toLowerCase(Locale.ROOT), summary);
+    }
+
+    Map<String, Object> counters = new LinkedHashMap<>();
+    for (QueryStats.Counter counter : QueryStats.Counter.values()) {
+      counters.put(counter.name().toLowerCase(Locale.ROOT), stats.getCount(counter));
+    }
+
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("phases", phases);
+    body.put("counters", counters);
+
+    // The numbers change with every query, so they are never worth caching.
+    response.setHeader("Cache-Control", "no-store");
+    response.setContentType("application/json");
+    response.getWriter().println(gson.toJson(body));
+  }
+
+  private static double toMicros(long nanos) {
+    return nanos / 1000.0;
+  }
+}
@@ -0,0 +1,75 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.sps.Event;
+import com.google.sps.EventStore;
+import com.google.sps.JsonCodecs;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Removes one copy of the JSON event in the request body from the calendar. The event has to
+ * match an existing one exactly, including its title, time and attendees.
+ */
+@WebServlet("/remove-event")
+public class RemoveEventServlet extends HttpServlet {
+  private final Gson gson = JsonCodecs.getGson();
+
+  private EventStore eventStore;
+  private boolean readOnly;
+
+  @Override
+  public void init() {
+    readOnly = SharedEventStore.isReadOnly(getServletContext());
+    if (!readOnly) {
+      eventStore = SharedEventStore.get(getServletContext());
+    }
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    if (readOnly) {
+      SharedEventStore.rejectChange(response);
+      return;
+    }
+    JsonElement json;
+    Event event;
+    try {
+      json = gson.fromJson(request.getReader(), JsonElement.class);
+      if (json == null) {
+        throw new IllegalArgumentException("event cannot be null");
+      }
+      // Check the names first, so that removing a made-up event doesn't give its names IDs.
+      event = SharedEventStore.hasUnknownAttendee(json) ? null
+          : SharedEventStore.readEvent(gson, json);
+    } catch (JsonParseException | IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
+
+    if (event == null || !eventStore.remove(event)) {
+      response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such event");
+      return;
+    }
+    response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+  }
+}
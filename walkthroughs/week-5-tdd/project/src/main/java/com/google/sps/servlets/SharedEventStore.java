@@ -0,0 +1,195 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.sps.AttendeeDictionary;
+import com.google.sps.BusySchedule;
+import com.google.sps.Event;
+import com.google.sps.EventFile;
+import com.google.sps.EventStore;
+import com.google.sps.Events;
+import com.google.sps.ParallelBusySchedule;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Gives every servlet in the app the same {@link EventStore}, which starts out with the built-in
+ * events.
+ *
+ * <p>If the {@code eventsFile} context parameter names an {@link EventFile}, that file is the
+ * calendar instead. Every servlet reads from it, and the calendar can't be changed.
+ */
+final class SharedEventStore {
+  private static final String ATTRIBUTE = EventStore.class.getName();
+  private static final String FILE_ATTRIBUTE = EventFile.class.getName();
+
+  // Names a calendar file to read from instead of the built-in events.
+  private static final String EVENTS_FILE_PARAMETER = "eventsFile";
+
+  // At or above this many attendees, a group's busy times are merged in parallel.
+  private static final String PARALLEL_THRESHOLD_PARAMETER = "parallelMergeThreshold";
+
+  private SharedEventStore() {
+    // Disallow instances
+  }
+
+  static EventStore get(ServletContext context) {
+    synchronized (context) {
+      EventStore store = (EventStore) context.getAttribute(ATTRIBUTE);
+      if (store == null) {
+        store = new EventStore(Arrays.asList(Events.events));
+        context.setAttribute(ATTRIBUTE, store);
+      }
+      return store;
+    }
+  }
+
+  /**
+   * Returns true if the calendar is read from a file and can't be changed.
+   */
+  static boolean isReadOnly(ServletContext context) {
+    return context.getInitParameter(EVENTS_FILE_PARAMETER) != null;
+  }
+
+  /**
+   * Returns the calendar file named by the {@code eventsFile} context parameter, opened once and
+   * shared by every servlet, or null if the calendar is kept in the {@link EventStore}.
+   */
+  static EventFile getEventFile(ServletContext context) throws ServletException {
+    String eventsFile = context.getInitParameter(EVENTS_FILE_PARAMETER);
+    if (eventsFile == null) {
+      return null;
+    }
+    synchronized (context) {
+      EventFile file = (EventFile) context.getAttribute(FILE_ATTRIBUTE);
+      if (file == null) {
+        try {
+          file = EventFile.open(Paths.get(eventsFile));
+        } catch (IOException e) {
+          throw new ServletException("Could not open " + eventsFile, e);
+        }
+        context.setAttribute(FILE_ATTRIBUTE, file);
+      }
+      return file;
+    }
+  }
+
+  /**
+   * Returns where to read the calendar as it is right now: the calendar file if there is one,
+   * otherwise the latest snapshot of the {@link EventStore}. Large groups of attendees are merged
+   * in parallel on the common pool once they reach the {@code parallelMergeThreshold} context
+   * parameter, or {@link ParallelBusySchedule#DEFAULT_THRESHOLD}.
+   */
+  static Supplier<BusySchedule> getSchedule(ServletContext context) throws ServletException {
+    int threshold = getParallelThreshold(context);
+    EventFile file = getEventFile(context);
+    if (file != null) {
+      BusySchedule schedule = new ParallelBusySchedule(file, ForkJoinPool.commonPool(), threshold);
+      return () -> schedule;
+    }
+    EventStore store = get(context);
+    return () -> new ParallelBusySchedule(store.snapshot(), ForkJoinPool.commonPool(), threshold);
+  }
+
+  private static int getParallelThreshold(ServletContext context) throws ServletException {
+    String value = context.getInitParameter(PARALLEL_THRESHOLD_PARAMETER);
+    if (value == null) {
+      return ParallelBusySchedule.DEFAULT_THRESHOLD;
+    }
+    int threshold;
+    try {
+      threshold = Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new ServletException(PARALLEL_THRESHOLD_PARAMETER + " must be a number", e);
+    }
+    if (threshold <= 0) {
+      throw new ServletException(PARALLEL_THRESHOLD_PARAMETER + " must be positive");
+    }
+    return threshold;
+  }
+
+  /**
+   * Sends a 403 for a request that would change a calendar that is read from a file.
+   */
+  static void rejectChange(HttpServletResponse response) throws IOException {
+    response.sendError(
+        HttpServletResponse.SC_FORBIDDEN, "The calendar is read from a file and can't be changed");
+  }
+
+  /**
+   * Reads one event from JSON in the shape that {@code /get-events} returns. Throws {@code
+   * IllegalArgumentException} if the JSON isn't a valid event.
+   */
+  static Event readEvent(Gson gson, Reader reader) {
+    Event parsed;
+    try {
+      parsed = gson.fromJson(reader, Event.class);
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException("Malformed event: " + e.getMessage(), e);
+    }
+    return checkEvent(parsed);
+  }
+
+  /**
+   * Like {@link #readEvent(Gson, Reader)}, but reads from JSON that has already been parsed.
+   */
+  static Event readEvent(Gson gson, JsonElement json) {
+    Event parsed;
+    try {
+      parsed = gson.fromJson(json, Event.class);
+    } catch (JsonParseException e) {
+      throw new IllegalArgumentException("Malformed event: " + e.getMessage(), e);
+    }
+    return checkEvent(parsed);
+  }
+
+  /**
+   * Returns true if {@code json} is an event with an attendee that no event has ever had. Such an
+   * event can't be in the store, and reading it would give the name a permanent ID.
+   */
+  static boolean hasUnknownAttendee(JsonElement json) {
+    if (!json.isJsonObject() || !json.getAsJsonObject().has("attendees")) {
+      return false;
+    }
+    JsonElement attendees = json.getAsJsonObject().get("attendees");
+    if (!attendees.isJsonArray()) {
+      return false;
+    }
+    for (JsonElement attendee : attendees.getAsJsonArray()) {
+      if (attendee.isJsonPrimitive()
+          && AttendeeDictionary.getDefault().lookup(attendee.getAsString()) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Event checkEvent(Event parsed) {
+    if (parsed == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+    return parsed;
+  }
+}
@@ -0,0 +1,133 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeSetTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  @Test
+  public void duplicatesAreDropped() {
+    AttendeeSet attendees = AttendeeSet.of(Arrays.asList(PERSON_A, PERSON_B, PERSON_A));
+
+    Assert.assertEquals(2, attendees.size());
+    Assert.assertTrue(attendees.contains(PERSON_A));
+    Assert.assertTrue(attendees.contains(PERSON_B));
+    Assert.assertFalse(attendees.contains(PERSON_C));
+    Assert.assertFalse(attendees.contains("Nobody has ever been called this"));
+  }
+
+  @Test
+  public void equalsOtherSets() {
+    AttendeeSet attendees = AttendeeSet.of(Arrays.asList(PERSON_B, PERSON_A));
+    HashSet<String> expected = new HashSet<>(Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertEquals(expected, attendees);
+    Assert.assertEquals(attendees, expected);
+    Assert.assertEquals(expected.hashCode(), attendees.hashCode());
+    Assert.assertEquals(AttendeeSet.of(Arrays.asList(PERSON_A, PERSON_B)), attendees);
+  }
+
+  @Test
+  public void intersects() {
+    AttendeeSet ab = AttendeeSet.of(Arrays.asList(PERSON_A, PERSON_B));
+    AttendeeSet bc = AttendeeSet.of(Arrays.asList(PERSON_B, PERSON_C));
+    AttendeeSet c = AttendeeSet.of(Arrays.asList(PERSON_C));
+
+    Assert.assertTrue(ab.intersects(bc));
+    Assert.assertTrue(bc.intersects(c));
+    Assert.assertFalse(ab.intersects(c));
+    Assert.assertFalse(ab.intersects(AttendeeSet.EMPTY));
+  }
+
+  @Test
+  public void withAddsOneAttendee() {
+    AttendeeSet a = AttendeeSet.of(Collections.singleton(PERSON_A));
+    AttendeeSet ac = a.with(PERSON_C);
+
+    Assert.assertEquals(1, a.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, PERSON_C)), ac);
+    Assert.assertSame(ac, ac.with(PERSON_A));
+  }
+
+  @Test
+  public void resolveDoesNotGiveNamesIds() {
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    String unknown = "Resolved but never encoded";
+    AttendeeSet.of(Collections.singleton(PERSON_A));
+    int size = dictionary.size();
+
+    AttendeeSet attendees = AttendeeSet.resolve(Arrays.asList(PERSON_A, unknown, unknown));
+    AttendeeSet withUnknown = AttendeeSet.EMPTY.with(unknown + " too");
+
+    Assert.assertEquals(size, dictionary.size());
+    Assert.assertEquals(-1, dictionary.lookup(unknown));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, unknown)), attendees);
+    Assert.assertTrue(attendees.contains(unknown));
+    Assert.assertEquals(1, withUnknown.size());
+    Assert.assertFalse(attendees.intersects(AttendeeSet.of(Arrays.asList(PERSON_B))));
+  }
+
+  @Test
+  public void resolvedNamesMatchOnceEncoded() {
+    String later = "Encoded after the request was read";
+    AttendeeSet request = AttendeeSet.resolve(Collections.singleton(later));
+
+    AttendeeSet event = AttendeeSet.of(Collections.singleton(later));
+
+    Assert.assertTrue(request.intersects(event));
+    Assert.assertTrue(event.intersects(request));
+    Assert.assertEquals(event, request);
+    Assert.assertEquals(request, AttendeeSet.resolve(Collections.singleton(later)));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void readOnly() {
+    AttendeeSet.of(Arrays.asList(PERSON_A)).add(PERSON_B);
+  }
+
+  @Test
+  public void requestsReadFromJson() {
+    String json = "{\"attendees\":[\"Person A\",\"Person A\"],\"duration\":30}";
+
+    MeetingRequest request = new Gson().fromJson(json, MeetingRequest.class);
+
+    Assert.assertEquals(Collections.singleton(PERSON_A), request.getAttendees());
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+    Assert.assertEquals(30, request.getDuration());
+  }
+
+  @Test
+  public void eventsWrittenAsJson() {
+    Event event =
+        new Event("Event 1", TimeRange.fromStartDuration(0, 30), Arrays.asList(PERSON_A));
+
+    String json = new Gson().toJson(event);
+
+    Assert.assertTrue(json, json.contains("\"attendees\":[\"Person A\"]"));
+  }
+}
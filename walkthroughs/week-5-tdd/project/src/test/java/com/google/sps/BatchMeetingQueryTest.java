@@ -0,0 +1,71 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchMeetingQueryTest {
+  private ForkJoinPool pool;
+  private BatchMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+    query = new BatchMeetingQuery(pool);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void noRequests() {
+    EventIndex index = new EventIndex(Collections.emptyList());
+
+    Assert.assertEquals(Collections.emptyList(), query.query(index, Collections.emptyList()));
+  }
+
+  @Test
+  public void answersComeBackInRequestOrder() {
+    Random random = new Random(3);
+    Collection<Event> events = RandomCalendars.events(random, 40);
+    EventIndex index = new EventIndex(events);
+
+    List<MeetingRequest> requests = new ArrayList<>();
+    List<Collection<TimeRange>> expected = new ArrayList<>();
+    MeetingQuery findMeetingQuery = new FindMeetingQuery();
+    for (int i = 0; i < 300; i++) {
+      MeetingRequest request = RandomCalendars.request(random);
+      requests.add(request);
+      expected.add(findMeetingQuery.query(events, request));
+    }
+
+    Assert.assertEquals(expected, query.query(index, requests));
+  }
+}
@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BinaryCodecTest {
+  @Test
+  public void requestRoundTrips() throws IOException {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A", "Person B"), 30);
+    request.addOptionalAttendee("Person C");
+    request.setPriority(-2);
+    request.setQuorum(1);
+    request.setAvailability("Person C", Arrays.asList(TimeRange.fromStartDuration(0, 60),
+        TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(1, 9, 0), 480)));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryCodec.writeRequest(request, new DataOutputStream(bytes));
+    MeetingRequest actual = BinaryCodec.readRequest(input(bytes.toByteArray()));
+
+    JsonCodecsTest.assertSameRequest(request, actual);
+  }
+
+  @Test
+  public void answerRoundTrips() throws IOException {
+    List<TimeRange> answer = Arrays.asList(
+        TimeRange.fromStartDuration(0, 30), TimeRange.fromStartDuration(90, 1350));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryCodec.writeAnswer(answer, new DataOutputStream(bytes));
+
+    Assert.assertEquals(answer, BinaryCodec.readAnswer(input(bytes.toByteArray())));
+    // A version byte, a count and two ints per range.
+    Assert.assertEquals(1 + 4 + 2 * 8, bytes.size());
+  }
+
+  @Test(expected = IOException.class)
+  public void unknownVersionIsRejected() throws IOException {
+    BinaryCodec.readAnswer(input(new byte[] {2, 0, 0, 0, 0}));
+  }
+
+  @Test(expected = IOException.class)
+  public void negativeCountIsRejected() throws IOException {
+    BinaryCodec.readAnswer(input(new byte[] {1, -1, -1, -1, -1}));
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedInputIsRejected() throws IOException {
+    // Claims a million ranges but ends straight away.
+    BinaryCodec.readAnswer(input(new byte[] {1, 0, 15, 66, 64}));
+  }
+
+  private static DataInputStream input(byte[] bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes));
+  }
+}
@@ -0,0 +1,164 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CachedMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_1_HOUR = 60;
+
+  private static final long TIME_TO_LIVE = 1000;
+
+  private FreeBusyTracker tracker;
+  private long now;
+  private CachedMeetingQuery cache;
+
+  @Before
+  public void setUp() {
+    tracker = new FreeBusyTracker();
+    tracker.add(new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A)));
+    cache = new CachedMeetingQuery(tracker, 2, TIME_TO_LIVE, () -> now);
+  }
+
+  @Test
+  public void sameAttendeesInAnyOrderHit() {
+    Collection<TimeRange> first =
+        cache.query(new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES));
+    Collection<TimeRange> second =
+        cache.query(new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A), DURATION_30_MINUTES));
+
+    Assert.assertEquals(1, cache.getMissCount());
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertSame(first, second);
+    Assert.assertEquals(new SweepMeetingQuery().query(tracker,
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES)), first);
+  }
+
+  @Test
+  public void differentDurationsMiss() {
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES));
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR));
+
+    Assert.assertEquals(2, cache.getMissCount());
+    Assert.assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void changedEventOnlyDropsItsAttendees() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+    requestC.addOptionalAttendee(PERSON_B);
+    cache.query(requestA);
+    cache.query(requestC);
+
+    Event event = new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_B));
+    tracker.add(event);
+    cache.invalidate(event);
+
+    Assert.assertEquals(1, cache.size());
+    cache.query(requestA);
+    Assert.assertEquals(1, cache.getHitCount());
+    Collection<TimeRange> answer = cache.query(requestC);
+    Assert.assertEquals(3, cache.getMissCount());
+    Assert.assertEquals(new SweepMeetingQuery().query(tracker, requestC), answer);
+  }
+
+  @Test
+  public void invalidateAllDropsEverything() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.query(request);
+
+    cache.invalidateAll();
+    cache.query(request);
+
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test
+  public void answersAgainstLatestSuppliedSchedule() {
+    EventStore store = new EventStore(Collections.emptyList());
+    Supplier<BusySchedule> schedules =
+        () -> new ParallelBusySchedule(store.snapshot(), ForkJoinPool.commonPool());
+    CachedMeetingQuery parallelCache = new CachedMeetingQuery(schedules, 2, 1, TimeUnit.MINUTES);
+    store.addListener(parallelCache::invalidate);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    parallelCache.query(request);
+
+    store.add(new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A)));
+
+    Assert.assertEquals(new SweepMeetingQuery().query(store.snapshot(), request),
+        parallelCache.query(request));
+    Assert.assertEquals(2, parallelCache.getMissCount());
+  }
+
+  @Test
+  public void leastRecentlyUsedIsEvicted() {
+    MeetingRequest requestA = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest requestB = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest requestC = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+    cache.query(requestA);
+    cache.query(requestB);
+    cache.query(requestA);
+    cache.query(requestC);
+
+    Assert.assertEquals(2, cache.size());
+    cache.query(requestA);
+    Assert.assertEquals(2, cache.getHitCount());
+    cache.query(requestB);
+    Assert.assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public void expiredAnswersMiss() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.query(request);
+
+    now += TIME_TO_LIVE - 1;
+    cache.query(request);
+    now += 1;
+    cache.query(request);
+
+    Assert.assertEquals(1, cache.getHitCount());
+    Assert.assertEquals(2, cache.getMissCount());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void answersAreReadOnly() {
+    cache.query(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES)).clear();
+  }
+}
@@ -0,0 +1,197 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventFileTest {
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void roundTripsEvents() throws IOException {
+    List<Event> events = Arrays.asList(Events.events);
+
+    EventFile file = write(events);
+
+    Assert.assertEquals(events.size(), file.size());
+    Assert.assertEquals(events, file.asList());
+    Assert.assertEquals(events.get(3).getTitle(), file.title(3));
+    Assert.assertEquals(events.get(3).getWhen().start(), file.start(3));
+    Assert.assertEquals(events.get(3).getWhen().duration(), file.duration(3));
+  }
+
+  @Test
+  public void emptyFile() throws IOException {
+    EventFile file = write(new ArrayList<>());
+
+    Assert.assertEquals(0, file.size());
+    Assert.assertTrue(file.getBusyIntervals(Arrays.asList("Nobody")).isEmpty());
+  }
+
+  @Test
+  public void busyIntervalsMatchEventIndex() throws IOException {
+    Random random = new Random(15);
+    for (int round = 0; round < 200; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(30));
+      MeetingRequest request = RandomCalendars.request(random);
+
+      EventFile file = write(events);
+
+      Assert.assertEquals("round " + round, new SweepMeetingQuery().query(events, request),
+          new SweepMeetingQuery().query(file, request));
+    }
+  }
+
+  @Test
+  public void busyIntervalsOfEachMatchTheEvents() throws IOException {
+    Random random = new Random(21);
+    List<String> attendees = Arrays.asList("C", "Nobody", "A", "F", "B");
+    for (int round = 0; round < 100; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(30));
+      EventFile file = write(events);
+
+      List<BusyIntervals> busyByAttendee =
+          file.getBusyIntervalsOfEach(attendees, TimeRange.WHOLE_DAY);
+
+      Assert.assertEquals(attendees.size(), busyByAttendee.size());
+      for (int i = 0; i < attendees.size(); i++) {
+        Assert.assertEquals("round " + round,
+            ranges(BusyIntervals.of(events, Arrays.asList(attendees.get(i)))),
+            ranges(busyByAttendee.get(i)));
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsOtherFiles() throws IOException {
+    Path path = folder.newFile().toPath();
+    Files.write(path, "[{\"title\":\"Event 1\"}]".getBytes(StandardCharsets.UTF_8));
+
+    EventFile.open(path);
+  }
+
+  @Test(expected = IOException.class)
+  public void rejectsTruncatedFiles() throws IOException {
+    Path path = folder.newFile().toPath();
+    EventFileWriter writer = new EventFileWriter();
+    for (Event event : Events.events) {
+      writer.add(event);
+    }
+    writer.write(path);
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+    EventFile.open(path);
+  }
+
+  @Test
+  public void badEntriesAreFoundWhenRead() throws IOException {
+    Path path = folder.newFile().toPath();
+    EventFileWriter writer = new EventFileWriter();
+    for (Event event : Events.events) {
+      writer.add(event);
+    }
+    writer.write(path);
+    // Point the first event's title past the end of the title table.
+    byte[] bytes = Files.readAllBytes(path);
+    ByteBuffer.wrap(bytes).putInt((6 + 2 * Events.events.length) * Integer.BYTES, 1000);
+    Files.write(path, bytes);
+
+    EventFile file = EventFile.open(path);
+
+    Assert.assertEquals(Events.events[1], file.getEvent(1));
+    try {
+      file.title(0);
+      Assert.fail();
+    } catch (UncheckedIOException expected) {
+    }
+  }
+
+  @Test
+  public void convertsJson() throws IOException {
+    String json = new Gson().toJson(Events.events);
+    EventFileWriter writer = new EventFileWriter();
+
+    EventFileConverter.readJson(new StringReader(json), writer);
+
+    Assert.assertEquals(Arrays.asList(Events.events), write(writer).asList());
+  }
+
+  @Test
+  public void convertsCsv() throws IOException {
+    String csv = "title,start,duration,attendees\n"
+        + "\"Lunch, with \"\"friends\"\"\",720,60,Ava;Liam\n"
+        + "\n"
+        + "Focus time,540,120,\n";
+    EventFileWriter writer = new EventFileWriter();
+
+    EventFileConverter.readCsv(new BufferedReader(new StringReader(csv)), writer);
+
+    List<Event> expected = Arrays.asList(
+        new Event("Lunch, with \"friends\"", TimeRange.fromStartDuration(720, 60),
+            Arrays.asList("Ava", "Liam")),
+        new Event("Focus time", TimeRange.fromStartDuration(540, 120), Arrays.asList()));
+    Assert.assertEquals(expected, write(writer).asList());
+  }
+
+  @Test(expected = IOException.class)
+  public void csvNeedsWholeMinutes() throws IOException {
+    EventFileConverter.readCsv(
+        new BufferedReader(new StringReader("Event 1,noon,60,Ava\n")), new EventFileWriter());
+  }
+
+  private static List<TimeRange> ranges(BusyIntervals busy) {
+    List<TimeRange> ranges = new ArrayList<>();
+    for (int i = 0; i < busy.size(); i++) {
+      ranges.add(TimeRange.fromStartEnd(busy.start(i), busy.end(i), false));
+    }
+    return ranges;
+  }
+
+  private EventFile write(Collection<Event> events) throws IOException {
+    EventFileWriter writer = new EventFileWriter();
+    for (Event event : events) {
+      writer.add(event);
+    }
+    return write(writer);
+  }
+
+  private EventFile write(EventFileWriter writer) throws IOException {
+    Path path = folder.newFile().toPath();
+    writer.write(path);
+    return EventFile.open(path);
+  }
+}
@@ -0,0 +1,97 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIntervalTreeTest {
+  private static final String PERSON_A = "Person A";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  @Test
+  public void emptyTree() {
+    EventIntervalTree tree = new EventIntervalTree(Collections.emptyList());
+
+    Assert.assertEquals(Collections.emptyList(), tree.getOverlapping(TimeRange.WHOLE_DAY));
+  }
+
+  @Test
+  public void findsOnlyOverlappingEvents() {
+    // Events  : |--1--|--2--|
+    //           |-------3-------|
+    // Window  :       |--|
+    Event first = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    Event second = new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A));
+    Event third = new Event("Event 3", TimeRange.fromStartEnd(TIME_0800AM, TIME_1100AM, false),
+        Arrays.asList(PERSON_A));
+    EventIntervalTree tree = new EventIntervalTree(Arrays.asList(second, third, first));
+
+    List<Event> actual = tree.getOverlapping(TimeRange.fromStartDuration(TIME_0900AM, 30));
+
+    Assert.assertEquals(2, actual.size());
+    Assert.assertTrue(actual.containsAll(Arrays.asList(second, third)));
+  }
+
+  @Test
+  public void eventsEndingAtTheWindowStartDoNotOverlap() {
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    EventIntervalTree tree = new EventIntervalTree(Arrays.asList(event));
+
+    Assert.assertEquals(Collections.emptyList(),
+        tree.getOverlapping(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)));
+    Assert.assertEquals(Collections.emptyList(),
+        tree.getOverlapping(TimeRange.fromStartEnd(TIME_0800AM - 30, TIME_0800AM, false)));
+  }
+
+  @Test
+  public void matchesLinearScanOnRandomCalendars() {
+    Random random = new Random(5);
+    for (int round = 0; round < 500; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(60));
+      EventIntervalTree tree = new EventIntervalTree(events);
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      TimeRange window = TimeRange.fromStartDuration(start, random.nextInt(120));
+
+      List<Event> expected = new ArrayList<>();
+      for (Event event : events) {
+        if (event.getWhen().overlaps(window)) {
+          expected.add(event);
+        }
+      }
+      List<Event> actual = tree.getOverlapping(window);
+
+      Assert.assertEquals("round " + round, expected.size(), actual.size());
+      Assert.assertTrue("round " + round, actual.containsAll(expected));
+    }
+  }
+}
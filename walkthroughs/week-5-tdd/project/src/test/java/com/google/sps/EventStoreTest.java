@@ -0,0 +1,150 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final Event EVENT_1 = new Event("Event 1",
+      TimeRange.fromStartDuration(TIME_0800AM, 60), Arrays.asList(PERSON_A));
+  private static final Event EVENT_2 = new Event("Event 2",
+      TimeRange.fromStartDuration(TIME_0900AM, 30), Arrays.asList(PERSON_A, PERSON_B));
+
+  @Test
+  public void snapshotsDontChange() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_1));
+    EventStore.Snapshot before = store.snapshot();
+
+    EventStore.Snapshot after = store.add(EVENT_2);
+
+    Assert.assertEquals(Arrays.asList(EVENT_1), before.getEvents());
+    Assert.assertEquals(1, before.getBusyIntervals(Arrays.asList(PERSON_A)).size());
+    Assert.assertTrue(before.getBusyIntervals(Arrays.asList(PERSON_B)).isEmpty());
+    Assert.assertEquals(Arrays.asList(EVENT_1, EVENT_2), after.getEvents());
+    Assert.assertEquals(1, after.getBusyIntervals(Arrays.asList(PERSON_B)).size());
+    Assert.assertEquals(before.getVersion() + 1, after.getVersion());
+    Assert.assertSame(after, store.snapshot());
+  }
+
+  @Test
+  public void removeTakesOneCopy() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_1, EVENT_2, EVENT_1));
+
+    Assert.assertTrue(store.remove(EVENT_1));
+    Assert.assertEquals(Arrays.asList(EVENT_2, EVENT_1), store.snapshot().getEvents());
+    Assert.assertEquals(Arrays.asList(EVENT_1.getWhen(), EVENT_2.getWhen()),
+        store.snapshot().getIndex().getBusyTimes(PERSON_A));
+
+    Assert.assertTrue(store.remove(EVENT_2));
+    Assert.assertFalse(store.remove(EVENT_2));
+    Assert.assertTrue(store.snapshot().getIndex().getBusyTimes(PERSON_B).isEmpty());
+  }
+
+  @Test
+  public void listenersHearAboutChanges() {
+    EventStore store = new EventStore(Arrays.asList(EVENT_1));
+    List<Event> changed = new ArrayList<>();
+    store.addListener(changed::add);
+
+    store.add(EVENT_2);
+    store.remove(EVENT_1);
+    store.remove(EVENT_1);
+
+    Assert.assertEquals(Arrays.asList(EVENT_2, EVENT_1), changed);
+  }
+
+  @Test
+  public void indexMatchesRebuiltIndex() {
+    Random random = new Random(16);
+    EventStore store = new EventStore(RandomCalendars.events(random, 10));
+    for (int round = 0; round < 500; round++) {
+      List<Event> events = store.snapshot().getEvents();
+      if (!events.isEmpty() && random.nextBoolean()) {
+        store.remove(events.get(random.nextInt(events.size())));
+      } else {
+        store.add(RandomCalendars.events(random, 1).iterator().next());
+      }
+
+      EventStore.Snapshot snapshot = store.snapshot();
+      EventIndex rebuilt = new EventIndex(snapshot.getEvents());
+      Assert.assertEquals("round " + round, rebuilt.getAttendees(),
+          snapshot.getIndex().getAttendees());
+      for (String attendee : rebuilt.getAttendees()) {
+        Assert.assertEquals("round " + round, rebuilt.getBusyTimes(attendee),
+            snapshot.getIndex().getBusyTimes(attendee));
+      }
+    }
+  }
+
+  @Test
+  public void concurrentWritersAreAllApplied() throws Exception {
+    EventStore store = new EventStore(Collections.emptyList());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    try {
+      // Every snapshot a reader sees must have as many busy times as it has events.
+      Future<Boolean> reader = executor.submit(() -> {
+        boolean consistent = true;
+        while (writing.get()) {
+          EventStore.Snapshot snapshot = store.snapshot();
+          consistent &= snapshot.getIndex().getBusyTimes(PERSON_A).size()
+              == snapshot.getEvents().size();
+        }
+        return consistent;
+      });
+      List<Future<?>> writers = new ArrayList<>();
+      for (int writer = 0; writer < 3; writer++) {
+        int first = writer * 100;
+        writers.add(executor.submit(() -> {
+          for (int i = first; i < first + 100; i++) {
+            store.add(new Event("Event " + i, TimeRange.fromStartDuration(i, 1),
+                Arrays.asList(PERSON_A)));
+          }
+        }));
+      }
+      for (Future<?> writer : writers) {
+        writer.get(10, TimeUnit.SECONDS);
+      }
+      writing.set(false);
+
+      Assert.assertTrue(reader.get(10, TimeUnit.SECONDS));
+      Assert.assertEquals(300, store.snapshot().getEvents().size());
+      Assert.assertEquals(300, store.snapshot().getVersion());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
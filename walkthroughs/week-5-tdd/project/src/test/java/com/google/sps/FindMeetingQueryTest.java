@@ -20,13 +20,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import org.junit.Assert;
-import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
 
-/** */
-@RunWith(JUnit4.class)
+/** Runs every case against each {@code MeetingQuery} engine, since they must all agree. */
+@RunWith(Parameterized.class)
 public final class FindMeetingQueryTest {
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
@@ -51,13 +52,27 @@ public final class FindMeetingQueryTest {
   private static final int DURATION_1_HOUR = 60;
   private static final int DURATION_2_HOUR = 120;
 
-  private FindMeetingQuery query;
-
-  @Before
-  public void setUp() {
-    query = new FindMeetingQuery();
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> engines() {
+    return Arrays.asList(new Object[][] {
+        {"FindMeetingQuery", new FindMeetingQuery()},
+        {"SweepMeetingQuery", new SweepMeetingQuery()},
+        {"EventIndex", (MeetingQuery) (events, request) ->
+            new FindMeetingQuery().query(new EventIndex(events), request)},
+        {"FreeBusyTracker", (MeetingQuery) (events, request) ->
+            new SweepMeetingQuery().query(new FreeBusyTracker(events), request)},
+        {"BitmapMeetingQuery", new BitmapMeetingQuery()},
+        {"BitmapMeetingQuery with EventIndex", (MeetingQuery) (events, request) ->
+            new BitmapMeetingQuery().query(new EventIndex(events), request)},
+    });
   }
 
+  @Parameter(0)
+  public String engineName;
+
+  @Parameter(1)
+  public MeetingQuery query;
+
   @Test
   public void optionsForNoAttendees() {
     MeetingRequest request = new MeetingRequest(NO_ATTENDEES, DURATION_1_HOUR);
@@ -407,5 +422,66 @@ public final class FindMeetingQueryTest {
 
     Assert.assertEquals(expected, actual);
   }
-}
 
+  @Test
+  public void requiredAttendeeOnlyAvailableSomeOfTheDay() {
+    // Events  :       |--A--|
+    // Avail A :   |-----------|
+    // Day     : |---------------------|
+    // Options :   |-1-|     |2|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.setAvailability(
+        PERSON_A, Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false)));
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeOnlyAvailableSomeOfTheDay() {
+    // Events  :       |--A--|
+    // Avail B :             |---------|
+    // Day     : |---------------------|
+    // Options :             |----1----|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.setAvailability(PERSON_B,
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true)));
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void availabilityDoesNotGrowDictionary() {
+    int size = AttendeeDictionary.getDefault().size();
+
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList("Made-up name 1"), DURATION_30_MINUTES);
+    request.setAvailability(
+        "Made-up name 1", Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)));
+
+    Collection<TimeRange> actual = query.query(NO_EVENTS, request);
+
+    Assert.assertEquals(size, AttendeeDictionary.getDefault().size());
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)), actual);
+  }
+}
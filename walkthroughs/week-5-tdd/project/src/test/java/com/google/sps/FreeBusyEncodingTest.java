@@ -0,0 +1,127 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeBusyEncodingTest {
+  private static final String PERSON_A = "Person A";
+
+  @Test
+  public void freeWindowHasNoRuns() {
+    TimeRange window = TimeRange.fromStartDuration(0, 100);
+
+    Assert.assertArrayEquals(new int[0], FreeBusyEncoding.runLengths(BusyIntervals.EMPTY, window));
+    Assert.assertArrayEquals(new byte[13], FreeBusyEncoding.bitmap(BusyIntervals.EMPTY, window));
+  }
+
+  @Test
+  public void runsAreClippedToWindow() {
+    // Events  :   |--A--|   |--A--|   |--A--|
+    // Window  :      [-------------------]
+    BusyIntervals busy = busy(event(0, 60), event(120, 60), event(240, 60));
+    TimeRange window = TimeRange.fromStartEnd(30, 270, false);
+
+    int[] expected = {0, 30, 60, 60, 60, 30};
+    Assert.assertArrayEquals(expected, FreeBusyEncoding.runLengths(busy, window));
+  }
+
+  @Test
+  public void touchingEventsAreOneRun() {
+    BusyIntervals busy = busy(event(10, 10), event(20, 10), event(25, 20));
+    TimeRange window = TimeRange.fromStartDuration(0, 60);
+
+    int[] expected = {10, 35};
+    Assert.assertArrayEquals(expected, FreeBusyEncoding.runLengths(busy, window));
+  }
+
+  @Test
+  public void bitmapSetsBusyMinutesLowestBitFirst() {
+    BusyIntervals busy = busy(event(3, 2), event(8, 17));
+    TimeRange window = TimeRange.fromStartDuration(0, 26);
+
+    byte[] expected = {0x18, (byte) 0xff, (byte) 0xff, 0x01};
+    Assert.assertArrayEquals(expected, FreeBusyEncoding.bitmap(busy, window));
+  }
+
+  @Test
+  public void encodingsMatchMinuteByMinuteOnRandomCalendars() {
+    Random random = new Random(25);
+    for (int trial = 0; trial < 500; trial++) {
+      BusyIntervals busy = busy(RandomCalendars.events(random, random.nextInt(20)));
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      TimeRange window = TimeRange.fromStartDuration(
+          start, random.nextInt(TimeRange.WHOLE_DAY.end() - start + 1));
+
+      boolean[] expected = new boolean[window.duration()];
+      for (int i = 0; i < busy.size(); i++) {
+        for (int minute = busy.start(i); minute < busy.end(i); minute++) {
+          if (window.contains(minute)) {
+            expected[minute - window.start()] = true;
+          }
+        }
+      }
+
+      Assert.assertArrayEquals(expected, fromRuns(
+          FreeBusyEncoding.runLengths(busy, window), window.duration()));
+      Assert.assertArrayEquals(expected, fromBitmap(
+          FreeBusyEncoding.bitmap(busy, window), window.duration()));
+    }
+  }
+
+  private static boolean[] fromRuns(int[] runs, int minutes) {
+    boolean[] busy = new boolean[minutes];
+    int minute = 0;
+    for (int i = 0; i < runs.length; i++) {
+      // Only the first run may be empty, or two runs of the same kind would have been joined.
+      Assert.assertTrue(i == 0 || runs[i] > 0);
+      for (int end = minute + runs[i]; minute < end; minute++) {
+        busy[minute] = i % 2 == 1;
+      }
+    }
+    return busy;
+  }
+
+  private static boolean[] fromBitmap(byte[] bits, int minutes) {
+    Assert.assertEquals((minutes + 7) / 8, bits.length);
+    boolean[] busy = new boolean[minutes];
+    for (int minute = 0; minute < minutes; minute++) {
+      busy[minute] = (bits[minute / 8] & (1 << (minute % 8))) != 0;
+    }
+    return busy;
+  }
+
+  private static BusyIntervals busy(Event... events) {
+    return busy(Arrays.asList(events));
+  }
+
+  private static BusyIntervals busy(Collection<Event> events) {
+    return BusyIntervals.of(events, Arrays.asList("A", "B", "C", "D", "E", "F", PERSON_A));
+  }
+
+  private static Event event(int start, int duration) {
+    return new Event("Event", TimeRange.fromStartDuration(start, duration),
+        Collections.singleton(PERSON_A));
+  }
+}
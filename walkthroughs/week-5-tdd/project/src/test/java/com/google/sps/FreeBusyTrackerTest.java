@@ -0,0 +1,171 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class FreeBusyTrackerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_1_HOUR = 60;
+
+  private FreeBusyTracker tracker;
+
+  @Before
+  public void setUp() {
+    tracker = new FreeBusyTracker();
+  }
+
+  @Test
+  public void addedEventsMakeAttendeesBusy() {
+    tracker.add(new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A, PERSON_B)));
+
+    BusyIntervals busy = tracker.getBusyIntervals(Arrays.asList(PERSON_B));
+    Assert.assertEquals(1, busy.size());
+    Assert.assertEquals(TIME_0800AM, busy.start(0));
+    Assert.assertEquals(TIME_0900AM, busy.end(0));
+  }
+
+  @Test
+  public void removingAnEventSplitsTheBusyTime() {
+    // Events  : |--1--|--2--|--3--|
+    // Removed :       |--2--|
+    Event first = new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A));
+    Event second = new Event("Event 2",
+        TimeRange.fromStartDuration(TIME_0800AM + DURATION_30_MINUTES, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A));
+    Event third = new Event("Event 3", TimeRange.fromStartDuration(TIME_0900AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A));
+    tracker.add(first);
+    tracker.add(second);
+    tracker.add(third);
+    Assert.assertEquals(1, tracker.getBusyIntervals(Arrays.asList(PERSON_A)).size());
+
+    Assert.assertTrue(tracker.remove(second));
+
+    BusyIntervals busy = tracker.getBusyIntervals(Arrays.asList(PERSON_A));
+    Assert.assertEquals(2, busy.size());
+    Assert.assertEquals(TIME_0900AM, busy.end(0));
+    Assert.assertEquals(TIME_0900AM, busy.start(1));
+    Assert.assertEquals(TIME_1000AM, busy.end(1));
+  }
+
+  @Test
+  public void removingOneCopyKeepsTheOther() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A));
+    tracker.add(event);
+    tracker.add(event);
+
+    Assert.assertTrue(tracker.remove(event));
+    Assert.assertEquals(1, tracker.size());
+    Assert.assertEquals(1, tracker.getBusyIntervals(Arrays.asList(PERSON_A)).size());
+
+    Assert.assertTrue(tracker.remove(event));
+    Assert.assertFalse(tracker.remove(event));
+    Assert.assertTrue(tracker.getBusyIntervals(Arrays.asList(PERSON_A)).isEmpty());
+  }
+
+  @Test
+  public void movingAnEventKeepsItsAttendees() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A));
+    tracker.add(event);
+
+    Event moved = tracker.move(event, TimeRange.fromStartDuration(TIME_1000AM, DURATION_1_HOUR));
+
+    Assert.assertEquals(event.getTitle(), moved.getTitle());
+    Assert.assertEquals(event.getAttendees(), moved.getAttendees());
+    BusyIntervals busy = tracker.getBusyIntervals(Arrays.asList(PERSON_A));
+    Assert.assertEquals(1, busy.size());
+    Assert.assertEquals(TIME_1000AM, busy.start(0));
+    Assert.assertNull(tracker.move(event, TimeRange.WHOLE_DAY));
+  }
+
+  @Test
+  public void matchesARebuildAfterRandomChanges() {
+    Random random = new Random(11);
+    List<Event> current = new ArrayList<>();
+    for (int round = 0; round < 2000; round++) {
+      int change = random.nextInt(3);
+      if (change == 0 || current.isEmpty()) {
+        Event event = RandomCalendars.events(random, 1).iterator().next();
+        current.add(event);
+        tracker.add(event);
+      } else if (change == 1) {
+        Event event = current.remove(random.nextInt(current.size()));
+        Assert.assertTrue(tracker.remove(event));
+      } else {
+        int index = random.nextInt(current.size());
+        TimeRange when = RandomCalendars.events(random, 1).iterator().next().getWhen();
+        current.set(index, tracker.move(current.get(index), when));
+      }
+
+      Collection<String> people = RandomCalendars.people(random, 1 + random.nextInt(3));
+      BusyIntervals expected = BusyIntervals.of(current, people);
+      BusyIntervals actual = tracker.getBusyIntervals(people);
+      Assert.assertEquals("round " + round, toRanges(expected), toRanges(actual));
+      Assert.assertEquals(current.size(), tracker.size());
+    }
+  }
+
+  @Test
+  public void followsTheStoreItWasCreatedFrom() {
+    Random random = new Random(7);
+    EventStore store = new EventStore(RandomCalendars.events(random, 10));
+    tracker = new FreeBusyTracker(store);
+    for (int round = 0; round < 500; round++) {
+      List<Event> current = store.snapshot().getEvents();
+      if (random.nextBoolean() || current.isEmpty()) {
+        store.add(RandomCalendars.events(random, 1).iterator().next());
+      } else {
+        store.remove(current.get(random.nextInt(current.size())));
+      }
+
+      Collection<String> people = RandomCalendars.people(random, 1 + random.nextInt(3));
+      Assert.assertEquals("round " + round,
+          toRanges(store.snapshot().getBusyIntervals(people)),
+          toRanges(tracker.getBusyIntervals(people)));
+      Assert.assertEquals(store.snapshot().getEvents().size(), tracker.size());
+    }
+  }
+
+  private static List<TimeRange> toRanges(BusyIntervals busy) {
+    List<TimeRange> ranges = new ArrayList<>();
+    for (int i = 0; i < busy.size(); i++) {
+      ranges.add(TimeRange.fromStartEnd(busy.start(i), busy.end(i), false));
+    }
+    return ranges;
+  }
+}
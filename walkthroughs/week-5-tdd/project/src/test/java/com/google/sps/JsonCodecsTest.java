@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class JsonCodecsTest {
+  private static final Gson GSON = JsonCodecs.getGson();
+
+  @Test
+  public void timeRangeMatchesReflection() {
+    TimeRange range = TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(9, 30), 45);
+
+    Assert.assertEquals(new Gson().toJson(range), GSON.toJson(range));
+    Assert.assertEquals(range, GSON.fromJson("{\"start\":570,\"duration\":45}", TimeRange.class));
+  }
+
+  @Test
+  public void negativeDurationIsRejected() {
+    try {
+      GSON.fromJson("{\"start\":570,\"duration\":-1}", TimeRange.class);
+      Assert.fail();
+    } catch (JsonParseException expected) {
+    }
+  }
+
+  @Test
+  public void eventRoundTrips() {
+    Event event = new Event("Event 1", TimeRange.fromStartDuration(60, 30),
+        Arrays.asList("Person A", "Person B"));
+
+    Assert.assertEquals(event, GSON.fromJson(GSON.toJson(event), Event.class));
+    Assert.assertEquals(event, GSON.fromJson(new Gson().toJson(event), Event.class));
+  }
+
+  @Test
+  public void eventWithoutTitleIsRejected() {
+    try {
+      GSON.fromJson("{\"when\":{\"start\":60,\"duration\":30},\"attendees\":[]}", Event.class);
+      Assert.fail();
+    } catch (JsonParseException expected) {
+    }
+  }
+
+  @Test
+  public void requestRoundTrips() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Person A", "Person B"), 30);
+    request.addOptionalAttendee("Person C");
+    request.setPriority(3);
+    request.setQuorum(1);
+    request.setAvailability("Person A",
+        Arrays.asList(TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(9, 0), 480)));
+
+    MeetingRequest actual = GSON.fromJson(GSON.toJson(request), MeetingRequest.class);
+
+    assertSameRequest(request, actual);
+  }
+
+  @Test
+  public void requestReadsOlderJson() {
+    MeetingRequest actual = GSON.fromJson(
+        "{\"attendees\":[\"Person A\"],\"duration\":30}", MeetingRequest.class);
+
+    Assert.assertEquals(Collections.singleton("Person A"), actual.getAttendees());
+    Assert.assertTrue(actual.getOptionalAttendees().isEmpty());
+    Assert.assertEquals(30, actual.getDuration());
+    Assert.assertEquals(0, actual.getPriority());
+    Assert.assertEquals(0, actual.getQuorum());
+    Assert.assertTrue(actual.getAvailability().isEmpty());
+  }
+
+  @Test
+  public void requiredAttendeeIsNotAlsoOptional() {
+    MeetingRequest actual = GSON.fromJson(
+        "{\"attendees\":[\"Person A\"],\"optional_attendees\":[\"Person A\",\"Person B\"],"
+            + "\"duration\":30}",
+        MeetingRequest.class);
+
+    Assert.assertEquals(Collections.singleton("Person B"), actual.getOptionalAttendees());
+  }
+
+  @Test
+  public void readingRequestsDoesNotGrowDictionary() {
+    int size = AttendeeDictionary.getDefault().size();
+
+    MeetingRequest actual = GSON.fromJson(
+        "{\"attendees\":[\"Made-up name 1\"],\"optional_attendees\":[\"Made-up name 2\"],"
+            + "\"duration\":30}",
+        MeetingRequest.class);
+
+    Assert.assertEquals(size, AttendeeDictionary.getDefault().size());
+    Assert.assertEquals(Collections.singleton("Made-up name 1"), actual.getAttendees());
+    Assert.assertEquals(Collections.singleton("Made-up name 2"), actual.getOptionalAttendees());
+  }
+
+  @Test
+  public void negativeQuorumIsRejected() {
+    try {
+      GSON.fromJson("{\"attendees\":[],\"duration\":30,\"quorum\":-1}", MeetingRequest.class);
+      Assert.fail();
+    } catch (JsonParseException expected) {
+    }
+  }
+
+  static void assertSameRequest(MeetingRequest expected, MeetingRequest actual) {
+    Assert.assertEquals(expected.getAttendees(), actual.getAttendees());
+    Assert.assertEquals(expected.getOptionalAttendees(), actual.getOptionalAttendees());
+    Assert.assertEquals(expected.getDuration(), actual.getDuration());
+    Assert.assertEquals(expected.getPriority(), actual.getPriority());
+    Assert.assertEquals(expected.getQuorum(), actual.getQuorum());
+    Assert.assertEquals(expected.getAvailability(), actual.getAvailability());
+  }
+}
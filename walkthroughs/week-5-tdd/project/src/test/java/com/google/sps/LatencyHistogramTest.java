@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class LatencyHistogramTest {
+  @Test
+  public void emptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getPercentile(0.99));
+    Assert.assertEquals(0, histogram.getMax());
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+
+    Assert.assertEquals(10, histogram.getCount());
+    Assert.assertEquals(5, histogram.getPercentile(0.5));
+    Assert.assertEquals(10, histogram.getPercentile(1));
+    Assert.assertEquals(1, histogram.getPercentile(0));
+    Assert.assertEquals(10, histogram.getMax());
+  }
+
+  @Test
+  public void negativeDurationsCountAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+
+    Assert.assertEquals(1, histogram.getCount());
+    Assert.assertEquals(0, histogram.getPercentile(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void fractionOutOfRange() {
+    new LatencyHistogram().getPercentile(1.5);
+  }
+
+  @Test
+  public void percentilesWithinBucketError() {
+    Random random = new Random(22);
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] values = new long[100000];
+    for (int i = 0; i < values.length; i++) {
+      // Spread the values over many powers of two, like real latencies.
+      values[i] = (long) Math.exp(random.nextDouble() * 25);
+      histogram.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double fraction : new double[] {0.5, 0.9, 0.99, 0.999}) {
+      long expected = values[(int) Math.ceil(fraction * values.length) - 1];
+      long actual = histogram.getPercentile(fraction);
+      Assert.assertTrue(fraction + ": " + actual + " vs " + expected,
+          actual >= expected && actual <= expected + expected / 16 + 1);
+    }
+    Assert.assertEquals(values[values.length - 1], histogram.getMax());
+    Assert.assertEquals(values[values.length - 1], histogram.getPercentile(1));
+  }
+
+  @Test
+  public void concurrentRecordingLosesNothing() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        long offset = thread;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 50000; i++) {
+            histogram.record(i * 4 + offset);
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(200000, histogram.getCount());
+    Assert.assertEquals(199999, histogram.getMax());
+  }
+}
@@ -0,0 +1,210 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MeetingPlannerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final TimeRange WORKDAY = TimeRange.fromStartEnd(TIME_0900AM,
+      TimeRange.getTimeInMinutes(17, 0), false);
+
+  @Test
+  public void higherPriorityGoesFirst() {
+    MeetingRequest low = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+    MeetingRequest high = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+    high.setPriority(1);
+
+    MeetingPlanner.Result result = new MeetingPlanner(new EventIndex(Arrays.asList()), WORKDAY)
+        .place(Arrays.asList(low, high));
+
+    Assert.assertEquals(2, result.getPlacements().size());
+    Assert.assertSame(high, result.getPlacements().get(0).getRequest());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_0900AM, 60),
+        result.getPlacements().get(0).getWhen());
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM, 60),
+        result.getPlacements().get(1).getWhen());
+    Assert.assertEquals(Arrays.asList(), result.getUnplaced());
+  }
+
+  @Test
+  public void avoidsExistingEvents() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    MeetingPlanner.Result result =
+        new MeetingPlanner(new EventIndex(events), WORKDAY).place(Arrays.asList(request));
+
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1000AM, 30),
+        result.getPlacements().get(0).getWhen());
+  }
+
+  @Test
+  public void reportsRequestsThatDontFit() {
+    MeetingRequest first = new MeetingRequest(Arrays.asList(PERSON_A), 5 * 60);
+    MeetingRequest second = new MeetingRequest(Arrays.asList(PERSON_A), 4 * 60);
+    MeetingRequest third = new MeetingRequest(Arrays.asList(PERSON_A), 3 * 60);
+
+    MeetingPlanner.Result result = new MeetingPlanner(new EventIndex(Arrays.asList()), WORKDAY)
+        .place(Arrays.asList(first, second, third));
+
+    Assert.assertEquals(2, result.getPlacements().size());
+    Assert.assertEquals(Arrays.asList(second), result.getUnplaced());
+  }
+
+  @Test
+  public void optionalAttendeesDroppedOnlyWhenThereIsNoTimeForThem() {
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, false), Arrays.asList(PERSON_C)));
+    MeetingRequest withC = new MeetingRequest(Arrays.asList(PERSON_A), 60);
+    withC.addOptionalAttendee(PERSON_C);
+    MeetingRequest allDay = new MeetingRequest(Arrays.asList(PERSON_B), WORKDAY.duration());
+    allDay.addOptionalAttendee(PERSON_C);
+
+    MeetingPlanner planner = new MeetingPlanner(new EventIndex(events), WORKDAY);
+    List<MeetingPlanner.Placement> placements =
+        planner.place(Arrays.asList(withC, allDay)).getPlacements();
+
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1100AM, 60), placements.get(0).getWhen());
+    Assert.assertEquals(WORKDAY, placements.get(1).getWhen());
+    // C only went to the first meeting, so it is the only thing blocking them.
+    MeetingRequest forC = new MeetingRequest(Arrays.asList(PERSON_C), 60);
+    Assert.assertEquals(TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(12, 0), 60),
+        planner.place(Arrays.asList(forC)).getPlacements().get(0).getWhen());
+  }
+
+  @Test
+  public void respectsAvailability() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.setAvailability(PERSON_A,
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1100AM, WORKDAY.end(), false)));
+
+    MeetingPlanner.Result result = new MeetingPlanner(new EventIndex(Arrays.asList()), WORKDAY)
+        .place(Arrays.asList(request));
+
+    Assert.assertEquals(TimeRange.fromStartDuration(TIME_1100AM, 30),
+        result.getPlacements().get(0).getWhen());
+  }
+
+  @Test
+  public void matchesBruteForceOnRandomCalendars() {
+    Random random = new Random(20);
+    for (int round = 0; round < 200; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingPlanner planner =
+          new MeetingPlanner(new EventIndex(events), TimeRange.WHOLE_DAY);
+      List<Event> busy = new ArrayList<>(events);
+
+      for (int i = 0; i < 5; i++) {
+        MeetingRequest request = new MeetingRequest(
+            RandomCalendars.people(random, 1 + random.nextInt(2)), 1 + random.nextInt(180));
+        int expected = earliestStart(busy, request);
+
+        MeetingPlanner.Result result = planner.place(Arrays.asList(request));
+        if (expected < 0) {
+          Assert.assertEquals("round " + round, Arrays.asList(request), result.getUnplaced());
+        } else {
+          TimeRange when = result.getPlacements().get(0).getWhen();
+          Assert.assertEquals("round " + round,
+              TimeRange.fromStartDuration(expected, (int) request.getDuration()), when);
+          busy.add(new Event("Placed", when, request.getAttendees()));
+        }
+      }
+    }
+  }
+
+  @Test(timeout = 30000)
+  public void placesTenThousandRequestsWithoutDoubleBooking() {
+    Random random = new Random(21);
+    String[] people = new String[500];
+    for (int i = 0; i < people.length; i++) {
+      people[i] = "Person " + i;
+    }
+    TimeRange horizon = TimeRange.fromDays(0, 90);
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      List<String> attendees = new ArrayList<>();
+      for (int j = 1 + random.nextInt(4); j > 0; j--) {
+        attendees.add(people[random.nextInt(people.length)]);
+      }
+      MeetingRequest request = new MeetingRequest(attendees, 30 + random.nextInt(90));
+      request.setPriority(random.nextInt(3));
+      requests.add(request);
+    }
+
+    MeetingPlanner.Result result =
+        new MeetingPlanner(new EventIndex(Arrays.asList()), horizon).place(requests);
+
+    Assert.assertEquals(requests.size(),
+        result.getPlacements().size() + result.getUnplaced().size());
+    Map<String, List<TimeRange>> meetings = new HashMap<>();
+    int lastPriority = Integer.MAX_VALUE;
+    for (MeetingPlanner.Placement placement : result.getPlacements()) {
+      Assert.assertTrue(placement.getRequest().getPriority() <= lastPriority);
+      lastPriority = placement.getRequest().getPriority();
+      Assert.assertTrue(horizon.contains(placement.getWhen()));
+      for (String attendee : placement.getRequest().getAttendees()) {
+        meetings.computeIfAbsent(attendee, key -> new ArrayList<>()).add(placement.getWhen());
+      }
+    }
+    for (List<TimeRange> ranges : meetings.values()) {
+      ranges.sort(TimeRange.ORDER_BY_START);
+      for (int i = 1; i < ranges.size(); i++) {
+        Assert.assertFalse(ranges.get(i - 1).overlaps(ranges.get(i)));
+      }
+    }
+  }
+
+  // Checks every minute of the day for the first time no attendee of request is busy.
+  private static int earliestStart(Collection<Event> events, MeetingRequest request) {
+    int duration = (int) request.getDuration();
+    for (int start = 0; start + duration <= TimeRange.WHOLE_DAY.duration(); start++) {
+      TimeRange meeting = TimeRange.fromStartDuration(start, duration);
+      boolean free = true;
+      for (Event event : events) {
+        // Events with no duration never make anyone busy.
+        if (event.getWhen().duration() > 0 && event.getWhen().overlaps(meeting)
+            && event.getAttendees().intersects(request.getAttendees())) {
+          free = false;
+          break;
+        }
+      }
+      if (free) {
+        return start;
+      }
+    }
+    return -1;
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,4 +45,41 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void availabilityCompilesToUnavailableMinutes() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_1_HOUR);
+    request.setAvailability(PERSON_A, Arrays.asList(TimeRange.fromStartEnd(540, 1020, false)));
+    request.setAvailability(PERSON_B, Arrays.asList(TimeRange.fromStartEnd(600, 1440, false)));
+
+    MinuteBitmap unavailable = request.getUnavailableMinutes(request.getAttendees());
+
+    Assert.assertTrue(unavailable.isBusy(0, 600));
+    Assert.assertFalse(unavailable.isBusy(600, 1020));
+    Assert.assertTrue(unavailable.isBusy(1020, 1440));
+    Assert.assertNull(request.getUnavailableMinutes(PERSON_C));
+    Assert.assertNull(request.getUnavailableMinutes(Arrays.asList(PERSON_C)));
+  }
+
+  @Test
+  public void setAvailabilityReplacesTheWindows() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.setAvailability(PERSON_A, Arrays.asList(TimeRange.fromStartEnd(540, 1020, false)));
+    request.getUnavailableMinutes(PERSON_A);
+    request.setAvailability(PERSON_A, Collections.emptyList());
+
+    Assert.assertEquals(Collections.emptyList(), request.getAvailability().get(PERSON_A));
+    Assert.assertEquals(MinuteBitmap.MINUTES, request.getUnavailableMinutes(PERSON_A).nextFree(0));
+  }
+
+  @Test
+  public void availabilityReadFromJson() {
+    MeetingRequest request = new Gson().fromJson("{\"attendees\":[\"Person A\"],\"duration\":30,"
+        + "\"availability\":{\"Person A\":[{\"start\":540,\"duration\":60}]}}",
+        MeetingRequest.class);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartDuration(540, 60)),
+        request.getAvailability().get(PERSON_A));
+    Assert.assertFalse(request.getUnavailableMinutes(PERSON_A).isBusy(540, 600));
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MinuteBitmapTest {
+  @Test
+  public void setBusyAcrossWords() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.setBusy(60, 200);
+
+    Assert.assertFalse(bitmap.isBusy(59));
+    Assert.assertTrue(bitmap.isBusy(60));
+    Assert.assertTrue(bitmap.isBusy(64));
+    Assert.assertTrue(bitmap.isBusy(128));
+    Assert.assertTrue(bitmap.isBusy(199));
+    Assert.assertFalse(bitmap.isBusy(200));
+  }
+
+  @Test
+  public void setBusyOnWordBoundaries() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.setBusy(64, 128);
+
+    Assert.assertFalse(bitmap.isBusy(63));
+    Assert.assertEquals(64, bitmap.nextBusy(0));
+    Assert.assertEquals(128, bitmap.nextFree(64));
+  }
+
+  @Test
+  public void rangesOutsideTheDayAreClamped() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.setBusy(-30, 10);
+    bitmap.setBusy(MinuteBitmap.MINUTES - 10, MinuteBitmap.MINUTES + 30);
+
+    Assert.assertEquals(10, bitmap.nextFree(0));
+    Assert.assertEquals(MinuteBitmap.MINUTES - 10, bitmap.nextBusy(10));
+    Assert.assertEquals(MinuteBitmap.MINUTES, bitmap.nextFree(MinuteBitmap.MINUTES - 10));
+  }
+
+  @Test
+  public void scansStopAtTheEndOfTheDay() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+
+    Assert.assertTrue(bitmap.isEmpty());
+    Assert.assertEquals(MinuteBitmap.MINUTES, bitmap.nextBusy(0));
+    Assert.assertEquals(MinuteBitmap.MINUTES, bitmap.nextFree(MinuteBitmap.MINUTES));
+
+    bitmap.setBusy(0, MinuteBitmap.MINUTES);
+    Assert.assertEquals(MinuteBitmap.MINUTES, bitmap.nextFree(0));
+  }
+
+  @Test
+  public void isBusyOverRange() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.setBusy(500, 510);
+
+    Assert.assertFalse(bitmap.isBusy(400, 500));
+    Assert.assertTrue(bitmap.isBusy(400, 501));
+    Assert.assertTrue(bitmap.isBusy(509, 600));
+    Assert.assertFalse(bitmap.isBusy(510, 600));
+    Assert.assertFalse(bitmap.isBusy(505, 505));
+  }
+
+  @Test
+  public void orCombinesBusyMinutes() {
+    MinuteBitmap a = new MinuteBitmap();
+    a.setBusy(0, 30);
+    MinuteBitmap b = new MinuteBitmap();
+    b.setBusy(1000, 1030);
+
+    a.or(b);
+
+    Assert.assertTrue(a.isBusy(0));
+    Assert.assertTrue(a.isBusy(1029));
+    Assert.assertEquals(1000, a.nextBusy(30));
+  }
+
+  @Test
+  public void bitmapEngineMatchesFindMeetingQueryOnRandomCalendars() {
+    Random random = new Random(42);
+    MeetingQuery expectedEngine = new FindMeetingQuery();
+    BitmapMeetingQuery actualEngine = new BitmapMeetingQuery();
+
+    for (int round = 0; round < 2000; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingRequest request = RandomCalendars.request(random);
+
+      Collection<TimeRange> expected = expectedEngine.query(events, request);
+      Assert.assertEquals("round " + round, expected, actualEngine.query(events, request));
+      Assert.assertEquals(
+          "round " + round, expected, actualEngine.query(new EventIndex(events), request));
+    }
+  }
+
+  @Test
+  public void invertSwapsBusyAndFree() {
+    MinuteBitmap bitmap = new MinuteBitmap();
+    bitmap.setBusy(60, 200);
+
+    MinuteBitmap inverted = bitmap.invert();
+
+    Assert.assertTrue(inverted.isBusy(0));
+    Assert.assertFalse(inverted.isBusy(60, 200));
+    Assert.assertTrue(inverted.isBusy(200));
+    Assert.assertTrue(inverted.isBusy(MinuteBitmap.MINUTES - 1));
+    Assert.assertEquals(MinuteBitmap.MINUTES, inverted.nextFree(200));
+    Assert.assertTrue(bitmap.invert().invert().isBusy(60));
+    Assert.assertTrue(new MinuteBitmap().invert().invert().isEmpty());
+  }
+}
@@ -0,0 +1,207 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class MostOptionalAttendeesQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private MostOptionalAttendeesQuery query;
+
+  @Before
+  public void setUp() {
+    query = new MostOptionalAttendeesQuery();
+  }
+
+  @Test
+  public void oneUnavailableOptionalAttendeeDoesNotDropTheOthers() {
+    // C is busy all day, but B can still make the times around A's event.
+    //
+    // Events  : |-------------C---------------|
+    //                 |--A--|     |--B--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void picksTheTimesMostOptionalAttendeesCanMake() {
+    // B and C are busy at different times, D is busy at the same time as C.
+    //
+    // Events  :       |--B--|     |-C+D-|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_C, PERSON_D)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void fallsBackToTheLeastBusyTimes() {
+    // Every slot conflicts with someone, so the best we can do is one conflict.
+    //
+    // Events  : |--B--|------C-------|
+    // Day     : |--------------------|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    // Any meeting that crosses 10:00 conflicts with both.
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noRoomForRequiredAttendees() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Assert.assertEquals(Arrays.asList(), query.query(events, request));
+  }
+
+  @Test
+  public void availabilityMatchesUnavailableEventsOnRandomCalendars() {
+    Random random = new Random(18);
+    for (int round = 0; round < 500; round++) {
+      List<Event> events = new ArrayList<>(RandomCalendars.events(random, random.nextInt(12)));
+      MeetingRequest request = RandomCalendars.request(random);
+      RandomCalendars.addAvailability(random, request);
+
+      List<Event> withUnavailable = new ArrayList<>(events);
+      withUnavailable.addAll(RandomCalendars.unavailableEvents(request, 1));
+      MeetingRequest plain = new MeetingRequest(request.getAttendees(), request.getDuration());
+      request.getOptionalAttendees().forEach(plain::addOptionalAttendee);
+
+      Assert.assertEquals("round " + round, query.query(withUnavailable, plain),
+          query.query(events, request));
+    }
+  }
+
+  @Test
+  public void matchesBruteForceOnRandomCalendars() {
+    Random random = new Random(7);
+    for (int round = 0; round < 500; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingRequest request = RandomCalendars.request(random);
+      int duration = (int) Math.max(request.getDuration(), 1);
+
+      // Work out which start times are best by checking every minute of the day.
+      List<Integer> bestStarts = new ArrayList<>();
+      int fewest = Integer.MAX_VALUE;
+      for (int start = 0; start + duration <= TimeRange.WHOLE_DAY.duration(); start++) {
+        TimeRange meeting = TimeRange.fromStartDuration(start, duration);
+        if (!busyPeople(events, meeting).stream().anyMatch(request.getAttendees()::contains)) {
+          Set<String> conflicts = busyPeople(events, meeting);
+          conflicts.retainAll(request.getOptionalAttendees());
+          if (conflicts.size() < fewest) {
+            fewest = conflicts.size();
+            bestStarts.clear();
+          }
+          if (conflicts.size() == fewest) {
+            bestStarts.add(start);
+          }
+        }
+      }
+
+      List<Integer> actualStarts = new ArrayList<>();
+      for (TimeRange range : query.query(events, request)) {
+        for (int start = range.start(); start + duration <= range.end(); start++) {
+          actualStarts.add(start);
+        }
+      }
+      Assert.assertEquals("round " + round, bestStarts, actualStarts);
+    }
+  }
+
+  private static Set<String> busyPeople(Collection<Event> events, TimeRange meeting) {
+    Set<String> people = new HashSet<>();
+    for (Event event : events) {
+      if (event.getWhen().duration() > 0 && event.getWhen().overlaps(meeting)) {
+        people.addAll(event.getAttendees());
+      }
+    }
+    return people;
+  }
+}
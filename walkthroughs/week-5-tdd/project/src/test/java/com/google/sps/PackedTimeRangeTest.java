@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PackedTimeRangeTest {
+  @Test
+  public void roundTrip() {
+    TimeRange range = TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(3, 9, 30), 45);
+    long packed = PackedTimeRange.of(range);
+
+    Assert.assertEquals(range.start(), PackedTimeRange.start(packed));
+    Assert.assertEquals(45, PackedTimeRange.duration(packed));
+    Assert.assertEquals(range.end(), PackedTimeRange.end(packed));
+    Assert.assertEquals(range, PackedTimeRange.toTimeRange(packed));
+  }
+
+  @Test
+  public void negativeValuesRoundTrip() {
+    long packed = PackedTimeRange.pack(-90, -5);
+
+    Assert.assertEquals(-90, PackedTimeRange.start(packed));
+    Assert.assertEquals(-5, PackedTimeRange.duration(packed));
+  }
+
+  @Test
+  public void packedRangesSortByStart() {
+    long[] ranges = {
+        PackedTimeRange.pack(600, 30), PackedTimeRange.pack(-60, 1000), PackedTimeRange.pack(0, 5)};
+    Arrays.sort(ranges);
+
+    Assert.assertEquals(-60, PackedTimeRange.start(ranges[0]));
+    Assert.assertEquals(0, PackedTimeRange.start(ranges[1]));
+    Assert.assertEquals(600, PackedTimeRange.start(ranges[2]));
+  }
+
+  @Test
+  public void matchesTimeRange() {
+    Random random = new Random(10);
+    for (int round = 0; round < 10000; round++) {
+      TimeRange a = TimeRange.fromStartDuration(random.nextInt(60), random.nextInt(20));
+      TimeRange b = TimeRange.fromStartDuration(random.nextInt(60), random.nextInt(20));
+      int point = random.nextInt(80);
+      long packedA = PackedTimeRange.of(a);
+      long packedB = PackedTimeRange.of(b);
+
+      String message = a + " and " + b;
+      Assert.assertEquals(message, a.overlaps(b), PackedTimeRange.overlaps(packedA, packedB));
+      Assert.assertEquals(message, a.contains(b), PackedTimeRange.contains(packedA, packedB));
+      Assert.assertEquals(message, a.contains(point), PackedTimeRange.contains(packedA, point));
+    }
+  }
+}
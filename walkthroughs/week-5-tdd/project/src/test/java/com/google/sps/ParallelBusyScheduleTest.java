@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ParallelBusyScheduleTest {
+  private static final int PEOPLE = 300;
+  private static final int THRESHOLD = 8;
+
+  private ForkJoinPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void mergeMatchesMergingEverythingAtOnce() {
+    Random random = new Random(17);
+    for (int round = 0; round < 500; round++) {
+      List<Event> events = events(random, random.nextInt(200));
+      List<Event> left = events.subList(0, events.size() / 2);
+      List<Event> right = events.subList(events.size() / 2, events.size());
+      List<String> everyone = people(random, PEOPLE);
+
+      assertSameIntervals("round " + round, BusyIntervals.of(events, everyone),
+          BusyIntervals.merge(BusyIntervals.of(left, everyone), BusyIntervals.of(right, everyone)));
+    }
+  }
+
+  @Test
+  public void matchesSequentialSchedule() {
+    Random random = new Random(17);
+    SweepMeetingQuery sweepMeetingQuery = new SweepMeetingQuery();
+    for (int round = 0; round < 200; round++) {
+      EventIndex index = new EventIndex(events(random, random.nextInt(500)));
+      ParallelBusySchedule parallel = new ParallelBusySchedule(index, pool, THRESHOLD);
+      MeetingRequest request = new MeetingRequest(people(random, random.nextInt(100)), 30);
+      for (String person : people(random, random.nextInt(100))) {
+        request.addOptionalAttendee(person);
+      }
+
+      assertSameIntervals("round " + round, index.getBusyIntervals(request.getAttendees()),
+          parallel.getBusyIntervals(request.getAttendees()));
+      Assert.assertEquals("round " + round, sweepMeetingQuery.query(index, request),
+          sweepMeetingQuery.query(parallel, request));
+    }
+  }
+
+  @Test
+  public void smallGroupsStayOnTheCallingThread() {
+    List<Thread> threads = new ArrayList<>();
+    BusySchedule schedule = attendees -> {
+      threads.add(Thread.currentThread());
+      return BusyIntervals.EMPTY;
+    };
+
+    new ParallelBusySchedule(schedule, pool, THRESHOLD).getBusyIntervals(
+        Arrays.asList("Person 0", "Person 1"));
+
+    Assert.assertEquals(Arrays.asList(Thread.currentThread()), threads);
+  }
+
+  private static List<Event> events(Random random, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(120, TimeRange.WHOLE_DAY.end() - start + 1));
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          people(random, 1 + random.nextInt(3))));
+    }
+    return events;
+  }
+
+  private static List<String> people(Random random, int count) {
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      people.add("Person " + random.nextInt(PEOPLE));
+    }
+    return people;
+  }
+
+  private static void assertSameIntervals(
+      String message, BusyIntervals expected, BusyIntervals actual) {
+    Assert.assertEquals(message, expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertEquals(message, expected.start(i), actual.start(i));
+      Assert.assertEquals(message, expected.end(i), actual.end(i));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryStatsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  @Test
+  public void recordReturnsTheTimeToStartTheNextPhaseFrom() {
+    QueryStats stats = new QueryStats();
+    long started = System.nanoTime();
+
+    long now = stats.record(QueryStats.Phase.PARSE, started);
+
+    Assert.assertTrue(now >= started);
+    Assert.assertEquals(1, stats.getHistogram(QueryStats.Phase.PARSE).getCount());
+    Assert.assertEquals(0, stats.getHistogram(QueryStats.Phase.WRITE).getCount());
+  }
+
+  @Test
+  public void findMeetingQueryCountsItsWork() {
+    QueryStats stats = QueryStats.getDefault();
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(600, 60), Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(720, 60), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    long scanned = stats.getCount(QueryStats.Counter.EVENTS_SCANNED);
+    long kept = stats.getCount(QueryStats.Counter.EVENTS_KEPT);
+    long gaps = stats.getCount(QueryStats.Counter.GAPS_FOUND);
+    long sorts = stats.getHistogram(QueryStats.Phase.SORT).getCount();
+
+    new FindMeetingQuery().query(events, request);
+
+    // The required and the optional attendees each get a pass over all three events.
+    Assert.assertEquals(6, stats.getCount(QueryStats.Counter.EVENTS_SCANNED) - scanned);
+    Assert.assertEquals(2, stats.getCount(QueryStats.Counter.EVENTS_KEPT) - kept);
+    Assert.assertEquals(3, stats.getCount(QueryStats.Counter.GAPS_FOUND) - gaps);
+    Assert.assertEquals(2, stats.getHistogram(QueryStats.Phase.SORT).getCount() - sorts);
+  }
+
+  @Test
+  public void sweepMeetingQueryCountsItsWork() {
+    QueryStats stats = QueryStats.getDefault();
+    EventIndex index = new EventIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(480, 60), Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(600, 60), Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(720, 60), Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    long scanned = stats.getCount(QueryStats.Counter.EVENTS_SCANNED);
+    long kept = stats.getCount(QueryStats.Counter.EVENTS_KEPT);
+    long sorts = stats.getHistogram(QueryStats.Phase.SORT).getCount();
+
+    new SweepMeetingQuery().query(index, request);
+
+    // The index only reads Person A's two busy times, and nobody optional has any to sort.
+    Assert.assertEquals(2, stats.getCount(QueryStats.Counter.EVENTS_SCANNED) - scanned);
+    Assert.assertEquals(2, stats.getCount(QueryStats.Counter.EVENTS_KEPT) - kept);
+    Assert.assertEquals(1, stats.getHistogram(QueryStats.Phase.SORT).getCount() - sorts);
+  }
+}
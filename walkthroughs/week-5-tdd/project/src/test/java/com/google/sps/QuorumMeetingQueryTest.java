@@ -0,0 +1,154 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QuorumMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private final QuorumMeetingQuery query = new QuorumMeetingQuery();
+
+  @Test
+  public void twoOfThreeIsEnough() {
+    // Events  : |-----A-----|
+    //              |-B-|
+    //                     |----C----|
+    // Options : |--|   |-|   |---------|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1100AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM + 30, TIME_1200PM, false),
+            Arrays.asList(PERSON_C)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), 30);
+    request.setQuorum(2);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TIME_1000AM + 30, false),
+        TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(expected, new FindMeetingQuery().query(events, request));
+    Assert.assertEquals(expected, new SweepMeetingQuery().query(events, request));
+    Assert.assertEquals(expected, new BitmapMeetingQuery().query(events, request));
+  }
+
+  @Test
+  public void zeroQuorumNeedsEveryone() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeQuorum() {
+    new MeetingRequest(Arrays.asList(PERSON_A), 30).setQuorum(-1);
+  }
+
+  @Test
+  public void matchesBruteForceOnRandomCalendars() {
+    Random random = new Random(21);
+    for (int round = 0; round < 1000; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingRequest request = RandomCalendars.request(random);
+      request.setQuorum(random.nextInt(request.getAttendees().size() + 1));
+      int duration = (int) Math.max(request.getDuration(), 1);
+      int quorum = request.getQuorum() == 0 ? request.getAttendees().size() : request.getQuorum();
+
+      // Check every start time on its own and join the ones that work into ranges.
+      List<TimeRange> expected = new ArrayList<>();
+      int runFirst = -1;
+      for (int start = 0; start + duration <= TimeRange.WHOLE_DAY.duration() + 1; start++) {
+        boolean works = false;
+        if (start + duration <= TimeRange.WHOLE_DAY.duration()) {
+          TimeRange meeting = TimeRange.fromStartDuration(start, duration);
+          int free = 0;
+          for (String attendee : request.getAttendees()) {
+            boolean busy = false;
+            for (Event event : events) {
+              busy |= event.getWhen().duration() > 0 && event.getWhen().overlaps(meeting)
+                  && event.getAttendees().contains(attendee);
+            }
+            free += busy ? 0 : 1;
+          }
+          works = free >= quorum;
+        }
+        if (works && runFirst < 0) {
+          runFirst = start;
+        } else if (!works && runFirst >= 0) {
+          expected.add(TimeRange.fromStartEnd(runFirst, start - 1 + duration, false));
+          runFirst = -1;
+        }
+      }
+      if (request.getAttendees().isEmpty()) {
+        expected = Arrays.asList(TimeRange.WHOLE_DAY);
+      }
+
+      Assert.assertEquals("round " + round, expected, query.query(events, request));
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void thousandsOfAttendees() {
+    Random random = new Random(22);
+    List<String> people = new ArrayList<>();
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      people.add("Person " + i);
+      for (int j = 0; j < 4; j++) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration() - 60);
+        events.add(new Event("Event", TimeRange.fromStartDuration(start, 30 + random.nextInt(30)),
+            Arrays.asList(people.get(i))));
+      }
+    }
+    MeetingRequest request = new MeetingRequest(people, 60);
+    request.setQuorum(4000);
+
+    Collection<TimeRange> slots = query.query(new EventIndex(events), request);
+
+    Assert.assertFalse(slots.isEmpty());
+    request.setQuorum(5000);
+    Assert.assertEquals(Arrays.asList(), query.query(new EventIndex(events), request));
+  }
+}
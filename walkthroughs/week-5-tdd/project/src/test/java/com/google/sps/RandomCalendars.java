@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Builds random calendars and requests so that engines can be checked against each other. */
+final class RandomCalendars {
+  private static final String[] PEOPLE = {"A", "B", "C", "D", "E", "F"};
+
+  private RandomCalendars() {
+    // Disallow instances.
+  }
+
+  static Collection<Event> events(Random random, int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int duration = random.nextInt(Math.min(240, TimeRange.WHOLE_DAY.end() - start + 1));
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          people(random, 1 + random.nextInt(2))));
+    }
+    return events;
+  }
+
+  static MeetingRequest request(Random random) {
+    MeetingRequest request = new MeetingRequest(people(random, random.nextInt(3)),
+        random.nextInt(180));
+    for (String person : people(random, random.nextInt(3))) {
+      request.addOptionalAttendee(person);
+    }
+    return request;
+  }
+
+  /**
+   * Gives a few random people in {@code request} zero to two random windows of availability.
+   */
+  static void addAvailability(Random random, MeetingRequest request) {
+    for (String person : people(random, random.nextInt(3))) {
+      List<TimeRange> windows = new ArrayList<>();
+      for (int i = random.nextInt(3); i > 0; i--) {
+        int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+        windows.add(TimeRange.fromStartDuration(start, random.nextInt(600)));
+      }
+      request.setAvailability(person, windows);
+    }
+  }
+
+  /**
+   * Returns one event for each stretch of the first {@code days} days that someone is outside the
+   * availability {@code request} gives them, worked out minute by minute.
+   */
+  static List<Event> unavailableEvents(MeetingRequest request, int days) {
+    int dayLength = TimeRange.WHOLE_DAY.duration();
+    List<Event> events = new ArrayList<>();
+    for (Map.Entry<String, List<TimeRange>> entry : request.getAvailability().entrySet()) {
+      boolean[] available = new boolean[days * dayLength];
+      for (int day = 0; day < days; day++) {
+        for (TimeRange window : entry.getValue()) {
+          for (int minute = Math.max(window.start(), 0);
+              minute < Math.min(window.end(), dayLength); minute++) {
+            available[day * dayLength + minute] = true;
+          }
+        }
+      }
+      for (int start = 0; start < available.length;) {
+        if (available[start]) {
+          start++;
+          continue;
+        }
+        int end = start;
+        while (end < available.length && !available[end]) {
+          end++;
+        }
+        events.add(new Event("Unavailable", TimeRange.fromStartEnd(start, end, false),
+            Arrays.asList(entry.getKey())));
+        start = end;
+      }
+    }
+    return events;
+  }
+
+  static List<String> people(Random random, int count) {
+    List<String> people = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      people.add(PEOPLE[random.nextInt(PEOPLE.length)]);
+    }
+    return people;
+  }
+}
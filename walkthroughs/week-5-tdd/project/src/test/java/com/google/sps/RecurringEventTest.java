@@ -0,0 +1,188 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int DAY = TimeRange.WHOLE_DAY.duration();
+  private static final int WEEK = 7 * DAY;
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final TimeRange STANDUP = TimeRange.fromStartDuration(TIME_0900AM, 15);
+
+  @Test
+  public void occurrencesOnlyInsideTheWindow() {
+    RecurringEvent standup =
+        new RecurringEvent("Standup", STANDUP, DAY, 10, Arrays.asList(PERSON_A));
+
+    List<TimeRange> actual = standup.occurrences(TimeRange.fromDays(3, 2));
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(3 * DAY + TIME_0900AM, 15),
+        TimeRange.fromStartDuration(4 * DAY + TIME_0900AM, 15));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void occurrenceRunningIntoTheWindowIsIncluded() {
+    RecurringEvent lateShift = new RecurringEvent("Late shift",
+        TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(22, 0), 4 * 60), DAY,
+        RecurringEvent.FOREVER, Arrays.asList(PERSON_A));
+
+    List<TimeRange> actual = lateShift.occurrences(TimeRange.fromDays(1, 1));
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(22, 0), 4 * 60),
+        TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(1, 22, 0), 4 * 60));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void foreverJumpsStraightToTheWindow() {
+    RecurringEvent oneOnOne = new RecurringEvent("1:1", STANDUP, WEEK, RecurringEvent.FOREVER,
+        Arrays.asList(PERSON_A, PERSON_B));
+
+    // A thousand years in, which would take fifty thousand steps to walk to.
+    int start = 1000 * 52 * WEEK;
+    List<TimeRange> actual = oneOnOne.occurrences(TimeRange.fromStartDuration(start, WEEK));
+    List<TimeRange> expected = Arrays.asList(TimeRange.fromStartDuration(start + TIME_0900AM, 15));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void untilStopsBeforeTheEnd() {
+    RecurringEvent standup =
+        RecurringEvent.until("Standup", STANDUP, DAY, 3 * DAY + TIME_0900AM, Arrays.asList());
+
+    Assert.assertEquals(3, standup.getCount());
+    Assert.assertEquals(3, standup.occurrences(TimeRange.fromDays(0, 10)).size());
+    Assert.assertEquals(0,
+        RecurringEvent.until("Standup", STANDUP, DAY, TIME_0900AM, Arrays.asList()).getCount());
+  }
+
+  @Test
+  public void exceptionsAreSkipped() {
+    RecurringEvent standup =
+        new RecurringEvent("Standup", STANDUP, DAY, 5, Arrays.asList(PERSON_A))
+            .withException(DAY + TIME_0900AM)
+            .withException(3 * DAY + TIME_0900AM);
+
+    List<TimeRange> actual = standup.occurrences(TimeRange.fromDays(0, 5));
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TIME_0900AM, 15),
+        TimeRange.fromStartDuration(2 * DAY + TIME_0900AM, 15),
+        TimeRange.fromStartDuration(4 * DAY + TIME_0900AM, 15));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertTrue(standup.isException(DAY + TIME_0900AM));
+    Assert.assertFalse(standup.isException(TIME_0900AM));
+  }
+
+  @Test
+  public void matchesSteppingThroughEveryOccurrence() {
+    Random random = new Random(19);
+    for (int round = 0; round < 2000; round++) {
+      TimeRange first = TimeRange.fromStartDuration(
+          random.nextInt(4 * DAY) - 2 * DAY, random.nextInt(3) == 0 ? 0 : random.nextInt(300));
+      int period = 1 + random.nextInt(DAY);
+      int count = random.nextInt(30);
+      RecurringEvent event =
+          new RecurringEvent("Event", first, period, count, Arrays.asList(PERSON_A));
+      for (int i = random.nextInt(4); i > 0; i--) {
+        event = event.withException(first.start() + random.nextInt(Math.max(count, 1)) * period);
+      }
+      TimeRange window =
+          TimeRange.fromStartDuration(random.nextInt(6 * DAY) - 2 * DAY, random.nextInt(2 * DAY));
+
+      List<TimeRange> expected = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        TimeRange occurrence = TimeRange.fromStartDuration(first.start() + i * period,
+            first.duration());
+        boolean inWindow = occurrence.duration() == 0
+            ? window.contains(occurrence.start())
+            : occurrence.overlaps(window);
+        if (inWindow && !event.isException(occurrence.start())) {
+          expected.add(occurrence);
+        }
+      }
+
+      Assert.assertEquals("round " + round, expected, event.occurrences(window));
+    }
+  }
+
+  @Test
+  public void scheduleExpandsInsideEachQueryWindow() {
+    RecurringEvent standup = new RecurringEvent(
+        "Standup", STANDUP, DAY, RecurringEvent.FOREVER, Arrays.asList(PERSON_A));
+    BusySchedule schedule = new RecurringSchedule(
+        new EventIndex(new ArrayList<>()), Arrays.asList(standup), TimeRange.WHOLE_DAY);
+    TimeRange dayFive = TimeRange.fromDays(5, 1);
+
+    BusyIntervals busy = schedule.getBusyIntervals(Arrays.asList(PERSON_A), dayFive);
+    BusyIntervals parallel = new ParallelBusySchedule(schedule, ForkJoinPool.commonPool(), 1)
+        .getBusyIntervals(Arrays.asList(PERSON_A), dayFive);
+
+    Assert.assertEquals(1, busy.size());
+    Assert.assertEquals(5 * DAY + TIME_0900AM, busy.start(0));
+    Assert.assertEquals(1, parallel.size());
+    Assert.assertEquals(busy.start(0), parallel.start(0));
+    Assert.assertEquals(TIME_0900AM,
+        schedule.getBusyIntervals(Arrays.asList(PERSON_A)).start(0));
+  }
+
+  @Test
+  public void scheduleMatchesMaterializedEvents() {
+    Random random = new Random(20);
+    TimeRange horizon = TimeRange.fromDays(0, 3);
+    SweepMeetingQuery query = new SweepMeetingQuery();
+    for (int round = 0; round < 500; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(8));
+      List<RecurringEvent> recurring = new ArrayList<>();
+      List<Event> materialized = new ArrayList<>(events);
+      for (int i = random.nextInt(4); i > 0; i--) {
+        TimeRange first = TimeRange.fromStartDuration(
+            random.nextInt(DAY) - DAY / 2, 1 + random.nextInt(120));
+        RecurringEvent event = new RecurringEvent("Recurring " + i, first,
+            60 + random.nextInt(DAY), RecurringEvent.FOREVER, RandomCalendars.people(random, 2));
+        recurring.add(event);
+        for (TimeRange occurrence : event.occurrences(horizon)) {
+          materialized.add(new Event(event.getTitle(), occurrence, event.getAttendees()));
+        }
+      }
+      MeetingRequest request = RandomCalendars.request(random);
+
+      BusySchedule schedule =
+          new RecurringSchedule(new EventIndex(events), recurring, TimeRange.WHOLE_DAY);
+      Assert.assertEquals("round " + round,
+          query.query(materialized, request, horizon), query.query(schedule, request, horizon));
+    }
+  }
+}
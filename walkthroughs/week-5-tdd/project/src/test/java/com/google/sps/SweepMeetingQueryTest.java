@@ -0,0 +1,394 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SweepMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  @Test
+  public void busyIntervalsMergeOverlaps() {
+    // Events  : |--A--|
+    //              |----B----|
+    //                |-A-|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)));
+
+    BusyIntervals busy = BusyIntervals.of(events, Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertEquals(1, busy.size());
+    Assert.assertEquals(TIME_0800AM, busy.start(0));
+    Assert.assertEquals(TIME_1000AM, busy.end(0));
+  }
+
+  @Test
+  public void busyIntervalsKeepTouchingEventsApart() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)));
+
+    BusyIntervals busy = BusyIntervals.of(events, Arrays.asList(PERSON_A));
+
+    Assert.assertEquals(2, busy.size());
+    Assert.assertEquals(TIME_0800AM, busy.start(0));
+    Assert.assertEquals(TIME_0830AM, busy.end(0));
+    Assert.assertEquals(TIME_0830AM, busy.start(1));
+    Assert.assertEquals(TIME_0900AM, busy.end(1));
+  }
+
+  @Test
+  public void busyIntervalsSkipOtherPeopleAndEmptyEvents() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, 30), Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, 0), Arrays.asList(PERSON_A)));
+
+    Assert.assertTrue(BusyIntervals.of(events, Arrays.asList(PERSON_A)).isEmpty());
+  }
+
+  @Test
+  public void horizonSlotsCrossMidnight() {
+    // Events  : |--A--|                 |--A--|
+    // Days    : |--- day 0 ---|--- day 1 ---|
+    // Options :       |-----------------|
+    TimeRange horizon = TimeRange.fromDays(0, 2);
+    int day1Morning = TimeRange.getTimeInMinutes(1, 8, 0);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(day1Morning, horizon.end(), false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 20 * 60);
+
+    Collection<TimeRange> actual = new SweepMeetingQuery().query(events, request, horizon);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, day1Morning, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void horizonIgnoresTimeOutsideIt() {
+    // The event starts before the horizon, so the only option is the rest of the horizon.
+    TimeRange horizon = TimeRange.fromStartEnd(TIME_0900AM, TimeRange.getTimeInMinutes(3, 0, 0),
+        false);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromDays(5, 1), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    Collection<TimeRange> actual = new SweepMeetingQuery().query(new EventIndex(events), request, horizon);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, horizon.end(), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void horizonTooShortForTheMeeting() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 3 * 24 * 60);
+
+    Collection<TimeRange> actual =
+        new SweepMeetingQuery().query(Arrays.asList(), request, TimeRange.fromDays(0, 2));
+
+    Assert.assertEquals(Arrays.asList(), actual);
+  }
+
+  @Test
+  public void horizonPrefersTimesOptionalAttendeesCanMake() {
+    // Events  :   |B|      |--------A--------|
+    // Days    : |--- day 0 ---|--- day 1 ---|
+    // Options :                              |--1--|
+    TimeRange horizon = TimeRange.fromDays(0, 2);
+    int noon = TimeRange.getTimeInMinutes(12, 0);
+    int day1Morning = TimeRange.getTimeInMinutes(1, 8, 0);
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(noon, day1Morning, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual = new SweepMeetingQuery().query(events, request, horizon);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(day1Morning, horizon.end(), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void matchesFindMeetingQueryOnRandomCalendars() {
+    Random random = new Random(42);
+    MeetingQuery expectedEngine = new FindMeetingQuery();
+    MeetingQuery actualEngine = new SweepMeetingQuery();
+
+    for (int round = 0; round < 2000; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingRequest request = RandomCalendars.request(random);
+
+      Assert.assertEquals("round " + round, expectedEngine.query(events, request),
+          actualEngine.query(events, request));
+    }
+  }
+
+  @Test
+  public void availabilityLimitsTheDay() {
+    // Events  :       |--A--|
+    // Hours A :    |-----------------|
+    // Hours B :                |----------|
+    // Options :                |-----|
+    int noon = TimeRange.getTimeInMinutes(12, 0);
+    int fivePm = TimeRange.getTimeInMinutes(17, 0);
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0900AM, noon, false), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+    request.setAvailability(PERSON_A,
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, fivePm, false)));
+    request.setAvailability(PERSON_B,
+        Arrays.asList(TimeRange.fromStartEnd(TIME_1000AM, TimeRange.getTimeInMinutes(20, 0),
+            false)));
+
+    Collection<TimeRange> expected = Arrays.asList(TimeRange.fromStartEnd(noon, fivePm, false));
+
+    Assert.assertEquals(expected, new SweepMeetingQuery().query(events, request));
+    Assert.assertEquals(expected, new BitmapMeetingQuery().query(events, request));
+    Assert.assertEquals(expected, new FindMeetingQuery().query(events, request));
+  }
+
+  @Test
+  public void availabilityRepeatsEveryDayOfTheHorizon() {
+    TimeRange horizon = TimeRange.fromDays(0, 2);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.setAvailability(PERSON_A,
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false)));
+
+    Collection<TimeRange> actual = new SweepMeetingQuery().query(Arrays.asList(), request, horizon);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        TimeRange.fromStartEnd(TimeRange.getTimeInMinutes(1, 9, 0),
+            TimeRange.getTimeInMinutes(1, 10, 0), false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void availabilityMatchesUnavailableEventsOnRandomCalendars() {
+    Random random = new Random(18);
+    SweepMeetingQuery sweepMeetingQuery = new SweepMeetingQuery();
+    MeetingQuery[] engines = {new FindMeetingQuery(), sweepMeetingQuery, new BitmapMeetingQuery()};
+    TimeRange horizon = TimeRange.fromDays(0, 2);
+
+    for (int round = 0; round < 2000; round++) {
+      List<Event> events = new ArrayList<>(RandomCalendars.events(random, random.nextInt(12)));
+      MeetingRequest request = RandomCalendars.request(random);
+      RandomCalendars.addAvailability(random, request);
+
+      List<Event> withUnavailable = new ArrayList<>(events);
+      withUnavailable.addAll(RandomCalendars.unavailableEvents(request, 1));
+      MeetingRequest plain = new MeetingRequest(request.getAttendees(), request.getDuration());
+      request.getOptionalAttendees().forEach(plain::addOptionalAttendee);
+      Collection<TimeRange> expected = sweepMeetingQuery.query(withUnavailable, plain);
+      for (MeetingQuery engine : engines) {
+        Assert.assertEquals("round " + round, expected, engine.query(events, request));
+      }
+
+      List<Event> withUnavailableDays = new ArrayList<>(events);
+      withUnavailableDays.addAll(RandomCalendars.unavailableEvents(request, 2));
+      Assert.assertEquals("round " + round,
+          sweepMeetingQuery.query(withUnavailableDays, plain, horizon),
+          sweepMeetingQuery.query(new EventIndex(events), request, horizon));
+    }
+  }
+
+  @Test
+  public void topKKeepsTheEarliestSlots() {
+    // Events  :       |--A--|     |--A--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--2--|     |--3--|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    List<TimeRange> actual =
+        new SweepMeetingQuery().queryTopK(events, request, 2, SlotScorer.EARLIEST_START);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void topKRanksByOptionalConflictsThenStart() {
+    // Events  : |B|   |--A--|     |-A,B-|
+    // Day     : |-----------------------------|
+    // Options : |--3--|     |--1--|     |--2--|
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartDuration(TimeRange.START_OF_DAY, 30),
+            Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<TimeRange> actual = new SweepMeetingQuery().queryTopK(
+        events, request, 3, SlotScorer.FEWEST_OPTIONAL_CONFLICTS);
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void topKLargestBufferWithinHorizon() {
+    TimeRange horizon = TimeRange.fromDays(0, 2);
+    int noon = TimeRange.getTimeInMinutes(12, 0);
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartDuration(noon, 60), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    List<TimeRange> actual = new SweepMeetingQuery().queryTopK(
+        new EventIndex(events), request, horizon, 1, SlotScorer.LARGEST_BUFFER);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(noon + 60, horizon.end(), false)), actual);
+  }
+
+  @Test
+  public void topKMatchesSortingEveryGapOnRandomCalendars() {
+    Random random = new Random(14);
+    SlotScorer[] scorers = {SlotScorer.EARLIEST_START, SlotScorer.LARGEST_BUFFER,
+        SlotScorer.FEWEST_OPTIONAL_CONFLICTS};
+
+    for (int round = 0; round < 2000; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingRequest request = RandomCalendars.request(random);
+      int k = 1 + random.nextInt(4);
+      SlotScorer scorer = scorers[round % scorers.length];
+
+      Assert.assertEquals("round " + round, sortEveryGap(events, request, scorer, k),
+          new SweepMeetingQuery().queryTopK(events, request, k, scorer));
+    }
+  }
+
+  @Test
+  public void handsOverTheRequiredAttendeesSlotsFirst() {
+    Random random = new Random(23);
+    for (int round = 0; round < 500; round++) {
+      Collection<Event> events = RandomCalendars.events(random, random.nextInt(12));
+      MeetingRequest request = RandomCalendars.request(random);
+      List<List<TimeRange>> handedOver = new ArrayList<>();
+
+      Collection<TimeRange> answer =
+          new SweepMeetingQuery().query(new EventIndex(events), request, handedOver::add);
+
+      Assert.assertEquals("round " + round, new SweepMeetingQuery().query(events, request), answer);
+      if (request.getAttendees().isEmpty() || request.getOptionalAttendees().isEmpty()
+          || request.hasPartialQuorum()) {
+        Assert.assertEquals("round " + round, Arrays.asList(), handedOver);
+      } else {
+        MeetingRequest requiredOnly =
+            new MeetingRequest(request.getAttendees(), request.getDuration());
+        Assert.assertEquals("round " + round,
+            Arrays.asList(new FindMeetingQuery().query(events, requiredOnly)), handedOver);
+      }
+    }
+  }
+
+  @Test
+  public void interruptedQueryGivesUp() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 30);
+
+    Thread.currentThread().interrupt();
+    try {
+      new SweepMeetingQuery().query(Arrays.<Event>asList(), request);
+      Assert.fail("expected the query to be cancelled");
+    } catch (CancellationException expected) {
+      // The interrupt stays set for whoever is running the query.
+      Assert.assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  private static List<TimeRange> sortEveryGap(
+      Collection<Event> events, MeetingRequest request, SlotScorer scorer, int k) {
+    boolean anyRequired = !request.getAttendees().isEmpty();
+    Collection<String> required =
+        anyRequired ? request.getAttendees() : request.getOptionalAttendees();
+    Collection<String> optional =
+        anyRequired ? request.getOptionalAttendees() : Arrays.<String>asList();
+    List<TimeRange> gaps = new ArrayList<>(new FindMeetingQuery().query(
+        events, new MeetingRequest(required, request.getDuration())));
+
+    Comparator<TimeRange> byScore = Comparator.comparingDouble(gap -> -scorer.score(
+        gap.start(), gap.end(), request.getDuration(), conflicts(events, optional, gap)));
+    gaps.sort(byScore.thenComparing(TimeRange.ORDER_BY_START)
+        .thenComparing(TimeRange::duration));
+    return gaps.subList(0, Math.min(k, gaps.size()));
+  }
+
+  private static int conflicts(Collection<Event> events, Collection<String> people, TimeRange gap) {
+    int conflicts = 0;
+    for (String person : people) {
+      for (Event event : events) {
+        TimeRange when = event.getWhen();
+        if (when.duration() > 0 && event.getAttendees().contains(person) && gap.overlaps(when)) {
+          conflicts++;
+          break;
+        }
+      }
+    }
+    return conflicts;
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class TimeRangeArrayTest {
+  @Test
+  public void growsPastInitialCapacity() {
+    TimeRangeArray ranges = new TimeRangeArray(0);
+    for (int i = 0; i < 100; i++) {
+      ranges.add(i * 10, i * 10 + 5);
+    }
+
+    Assert.assertEquals(100, ranges.size());
+    Assert.assertEquals(PackedTimeRange.pack(990, 5), ranges.get(99));
+  }
+
+  @Test
+  public void toListConvertsEveryRange() {
+    TimeRangeArray ranges = new TimeRangeArray();
+    ranges.add(0, 30);
+    ranges.add(PackedTimeRange.of(TimeRange.fromStartDuration(60, 15)));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(0, 30, false), TimeRange.fromStartDuration(60, 15)),
+        ranges.toList());
+  }
+
+  @Test
+  public void truncateKeepsThePrefix() {
+    TimeRangeArray ranges = new TimeRangeArray();
+    ranges.add(0, 30);
+    ranges.add(60, 90);
+    ranges.add(120, 150);
+    ranges.set(1, ranges.get(2));
+    ranges.truncate(2);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(0, 30, false),
+        TimeRange.fromStartEnd(120, 150, false)), ranges.toList());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getPastTheEnd() {
+    TimeRangeArray ranges = new TimeRangeArray();
+    ranges.add(0, 30);
+    ranges.get(1);
+  }
+}
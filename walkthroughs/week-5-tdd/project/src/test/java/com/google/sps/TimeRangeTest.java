@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import java.time.Instant;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -184,4 +185,38 @@ public final class TimeRangeTest {
     Assert.assertTrue(emptyMiddle.overlaps(range));
     Assert.assertTrue(emptyEnd.overlaps(range));
   }
+
+  @Test
+  public void timeOnLaterDays() {
+    Assert.assertEquals(TimeRange.getTimeInMinutes(8, 30), TimeRange.getTimeInMinutes(0, 8, 30));
+    Assert.assertEquals(3 * TimeRange.MINUTES_PER_DAY + TimeRange.getTimeInMinutes(8, 30),
+        TimeRange.getTimeInMinutes(3, 8, 30));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void hoursStillStopAtTwentyThreeOnLaterDays() {
+    TimeRange.getTimeInMinutes(1, 24, 0);
+  }
+
+  @Test
+  public void rangeOfWholeDays() {
+    TimeRange range = TimeRange.fromDays(2, 14);
+
+    Assert.assertEquals(2 * TimeRange.MINUTES_PER_DAY, range.start());
+    Assert.assertEquals(14 * TimeRange.MINUTES_PER_DAY, range.duration());
+    Assert.assertEquals(TimeRange.WHOLE_DAY, TimeRange.fromDays(0, 1));
+  }
+
+  @Test
+  public void epochMinutes() {
+    Instant instant = Instant.parse("2020-01-01T09:30:00Z");
+    int epochMinute = TimeRange.getEpochMinute(instant);
+
+    Assert.assertEquals(18262 * TimeRange.MINUTES_PER_DAY + 9 * 60 + 30, epochMinute);
+    Assert.assertEquals(instant, TimeRange.toInstant(epochMinute));
+
+    // Seconds are rounded down to the minute they fall in, even before the epoch.
+    Assert.assertEquals(epochMinute, TimeRange.getEpochMinute(instant.plusSeconds(59)));
+    Assert.assertEquals(-1, TimeRange.getEpochMinute(Instant.ofEpochSecond(-1)));
+  }
 }
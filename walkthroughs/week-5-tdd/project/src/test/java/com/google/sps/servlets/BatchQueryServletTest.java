@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchQueryServletTest {
+  private final BatchQueryServlet servlet = new BatchQueryServlet();
+
+  @Test
+  public void malformedJsonIsABadRequest() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, post("[{\"duration\": 30,"));
+  }
+
+  @Test
+  public void requestsTheAdaptersRejectAreBadRequests() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST,
+        post("[{\"attendees\": [\"Person A\"], \"duration\": 30, \"quorum\": -1}]"));
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST,
+        post("[{\"duration\": 30, \"availability\": {\"Person A\": [null]}}]"));
+  }
+
+  @Test
+  public void nullRequestsAreBadRequests() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, post("[null]"));
+  }
+
+  /**
+   * Posts {@code body} to the servlet and returns the error status it sends. The servlet is never
+   * initialized, so it can only answer requests that fail before reaching the calendar.
+   */
+  private int post(String body) throws IOException {
+    HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {HttpServletRequest.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getReader")) {
+            return new BufferedReader(new StringReader(body));
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    int[] status = {0};
+    HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {HttpServletResponse.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("sendError")) {
+            status[0] = (Integer) args[0];
+            return null;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+
+    servlet.doPost(request, response);
+
+    return status[0];
+  }
+}
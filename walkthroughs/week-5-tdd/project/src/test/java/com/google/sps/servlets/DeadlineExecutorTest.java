@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryStats;
+import com.google.sps.TimeRange;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class DeadlineExecutorTest {
+  private static final List<TimeRange> PRELIMINARY = Arrays.asList(TimeRange.WHOLE_DAY);
+  private static final List<TimeRange> ANSWER =
+      Arrays.asList(TimeRange.fromStartDuration(540, 60));
+
+  private static final long LONG_DEADLINE = TimeUnit.SECONDS.toNanos(30);
+
+  private final QueryStats stats = new QueryStats();
+  private final DeadlineExecutor executor = new DeadlineExecutor(1, 1, stats);
+  // Lets tests hold a worker until they are ready.
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  public void answersBeforeTheDeadline() throws Exception {
+    Outcome outcome = new Outcome();
+
+    Assert.assertTrue(executor.submit(foundSoFar -> ANSWER, LONG_DEADLINE, outcome));
+
+    Assert.assertEquals(ANSWER, outcome.answer.get(10, TimeUnit.SECONDS));
+    Assert.assertFalse(outcome.partial);
+    Assert.assertEquals(1, stats.getHistogram(QueryStats.Phase.QUEUE).getCount());
+    Assert.assertEquals(1, stats.getHistogram(QueryStats.Phase.QUERY).getCount());
+  }
+
+  @Test
+  public void deadlineSendsTheSlotsFoundSoFar() throws Exception {
+    Outcome outcome = new Outcome();
+
+    executor.submit(foundSoFar -> {
+      foundSoFar.accept(PRELIMINARY);
+      return blockedAnswer();
+    }, TimeUnit.MILLISECONDS.toNanos(50), outcome);
+
+    Assert.assertEquals(PRELIMINARY, outcome.answer.get(10, TimeUnit.SECONDS));
+    Assert.assertTrue(outcome.partial);
+    Assert.assertEquals(1, stats.getCount(QueryStats.Counter.PARTIAL_ANSWERS));
+  }
+
+  @Test
+  public void deadlineWithNothingFoundSendsNoSlots() throws Exception {
+    Outcome outcome = new Outcome();
+
+    executor.submit(foundSoFar -> blockedAnswer(), TimeUnit.MILLISECONDS.toNanos(50), outcome);
+
+    Assert.assertEquals(Collections.emptyList(), outcome.answer.get(10, TimeUnit.SECONDS));
+    Assert.assertTrue(outcome.partial);
+  }
+
+  @Test
+  public void deadlineWhileQueuedRejects() throws Exception {
+    executor.submit(foundSoFar -> blockedAnswer(), LONG_DEADLINE, new Outcome());
+    Outcome queued = new Outcome();
+
+    executor.submit(foundSoFar -> ANSWER, TimeUnit.MILLISECONDS.toNanos(50), queued);
+
+    queued.timedOut.get(10, TimeUnit.SECONDS);
+    Assert.assertFalse(queued.answer.isDone());
+    Assert.assertEquals(1, stats.getCount(QueryStats.Counter.REJECTED));
+    Assert.assertEquals(0, stats.getCount(QueryStats.Counter.PARTIAL_ANSWERS));
+  }
+
+  @Test
+  public void deadlineFreesTheWorker() throws Exception {
+    // The first query only gives up its only worker if the deadline interrupts it.
+    executor.submit(foundSoFar -> blockedUntilInterrupted(), TimeUnit.MILLISECONDS.toNanos(50),
+        new Outcome());
+    Outcome next = new Outcome();
+
+    Assert.assertTrue(executor.submit(foundSoFar -> ANSWER, LONG_DEADLINE, next));
+
+    Assert.assertEquals(ANSWER, next.answer.get(10, TimeUnit.SECONDS));
+    Assert.assertFalse(next.partial);
+  }
+
+  @Test
+  public void fullQueueRejectsAtOnce() {
+    // One query holds the only worker and one waits in the only queue slot.
+    Assert.assertTrue(executor.submit(foundSoFar -> blockedAnswer(), LONG_DEADLINE, new Outcome()));
+    Assert.assertTrue(executor.submit(foundSoFar -> ANSWER, LONG_DEADLINE, new Outcome()));
+
+    Assert.assertFalse(executor.submit(foundSoFar -> ANSWER, LONG_DEADLINE, new Outcome()));
+    Assert.assertEquals(1, stats.getCount(QueryStats.Counter.REJECTED));
+  }
+
+  @Test
+  public void failuresAreReported() throws Exception {
+    Outcome outcome = new Outcome();
+
+    executor.submit(foundSoFar -> {
+      throw new IllegalStateException("broken");
+    }, LONG_DEADLINE, outcome);
+
+    Assert.assertEquals("broken", outcome.failure.get(10, TimeUnit.SECONDS).getMessage());
+    Assert.assertFalse(outcome.answer.isDone());
+  }
+
+  private Collection<TimeRange> blockedAnswer() {
+    try {
+      release.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return ANSWER;
+  }
+
+  private Collection<TimeRange> blockedUntilInterrupted() {
+    try {
+      new CountDownLatch(1).await();
+    } catch (InterruptedException e) {
+      throw new CancellationException("interrupted");
+    }
+    return ANSWER;
+  }
+
+  private static final class Outcome implements DeadlineExecutor.Responder {
+    final CompletableFuture<Collection<TimeRange>> answer = new CompletableFuture<>();
+    final CompletableFuture<RuntimeException> failure = new CompletableFuture<>();
+    final CompletableFuture<Void> timedOut = new CompletableFuture<>();
+    volatile boolean partial;
+
+    @Override
+    public void respond(Collection<TimeRange> answer, boolean partial) {
+      this.partial = partial;
+      this.answer.complete(answer);
+    }
+
+    @Override
+    public void timedOutInQueue() {
+      timedOut.complete(null);
+    }
+
+    @Override
+    public void fail(RuntimeException e) {
+      failure.complete(e);
+    }
+  }
+}
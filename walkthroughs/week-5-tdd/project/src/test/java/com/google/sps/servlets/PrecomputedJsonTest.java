@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PrecomputedJsonTest {
+  private static final String JSON = "[{\"title\":\"Event 1\"}]";
+
+  @Test
+  public void eTagDependsOnContent() {
+    PrecomputedJson json = PrecomputedJson.of(JSON);
+
+    Assert.assertEquals(json.getETag(), PrecomputedJson.of(JSON).getETag());
+    Assert.assertNotEquals(json.getETag(), PrecomputedJson.of("[]").getETag());
+    Assert.assertTrue(json.getETag().startsWith("\""));
+    Assert.assertTrue(json.getETag().endsWith("\""));
+  }
+
+  @Test
+  public void matchesIfNoneMatch() {
+    PrecomputedJson json = PrecomputedJson.of(JSON);
+    String eTag = json.getETag();
+
+    Assert.assertTrue(json.matches(eTag));
+    Assert.assertTrue(json.matches("W/" + eTag));
+    Assert.assertTrue(json.matches("\"other\", " + eTag));
+    Assert.assertTrue(json.matches("*"));
+    Assert.assertFalse(json.matches("\"other\""));
+    Assert.assertFalse(json.matches(null));
+  }
+
+  @Test
+  public void acceptsGzip() {
+    Assert.assertTrue(PrecomputedJson.acceptsGzip("gzip"));
+    Assert.assertTrue(PrecomputedJson.acceptsGzip("deflate, GZIP;q=0.5"));
+    Assert.assertTrue(PrecomputedJson.acceptsGzip("*"));
+    Assert.assertFalse(PrecomputedJson.acceptsGzip("gzip;q=0"));
+    Assert.assertFalse(PrecomputedJson.acceptsGzip("deflate, br"));
+    Assert.assertFalse(PrecomputedJson.acceptsGzip("*;q=1, gzip;q=0"));
+    Assert.assertTrue(PrecomputedJson.acceptsGzip("*;q=0, gzip"));
+    Assert.assertFalse(PrecomputedJson.acceptsGzip(null));
+  }
+
+  @Test
+  public void gzippedBytesDecompressToJson() throws IOException {
+    PrecomputedJson json = PrecomputedJson.of(JSON);
+
+    Assert.assertEquals(JSON, new String(json.getBytes(), StandardCharsets.UTF_8));
+    Assert.assertEquals(JSON, new String(gunzip(json.getGzipped()), StandardCharsets.UTF_8));
+  }
+
+  private static byte[] gunzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      byte[] buffer = new byte[256];
+      for (int read; (read = in.read(buffer)) != -1;) {
+        out.write(buffer, 0, read);
+      }
+    }
+    return out.toByteArray();
+  }
+}
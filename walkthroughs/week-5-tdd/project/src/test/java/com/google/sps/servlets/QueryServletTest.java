@@ -0,0 +1,49 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.BinaryCodec;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryServletTest {
+  @Test
+  public void isBinary() {
+    Assert.assertTrue(QueryServlet.isBinary(BinaryCodec.CONTENT_TYPE));
+    Assert.assertTrue(QueryServlet.isBinary(BinaryCodec.CONTENT_TYPE + "; charset=binary"));
+    Assert.assertFalse(QueryServlet.isBinary("application/json"));
+    Assert.assertFalse(QueryServlet.isBinary(null));
+  }
+
+  @Test
+  public void acceptsBinary() {
+    Assert.assertTrue(QueryServlet.acceptsBinary(BinaryCodec.CONTENT_TYPE, false));
+    Assert.assertTrue(QueryServlet.acceptsBinary(
+        "application/json;q=0.5, " + BinaryCodec.CONTENT_TYPE + ";q=0.9", false));
+    Assert.assertFalse(QueryServlet.acceptsBinary(BinaryCodec.CONTENT_TYPE + ";q=0", true));
+    Assert.assertFalse(QueryServlet.acceptsBinary("application/json", true));
+    Assert.assertFalse(QueryServlet.acceptsBinary("*/*", true));
+  }
+
+  @Test
+  public void answersInKindWithoutAccept() {
+    Assert.assertTrue(QueryServlet.acceptsBinary(null, true));
+    Assert.assertFalse(QueryServlet.acceptsBinary(null, false));
+  }
+}